@@ -0,0 +1,100 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.AISmartCodeReviewerApplication;
+import com.ai.hackathon.model.AnalysisResult;
+import com.ai.hackathon.model.AnalysisTier;
+import com.ai.hackathon.rules.RuleProfile;
+import com.ai.hackathon.service.CodeAnalyzerService;
+import com.ai.hackathon.service.RuleProfiles;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// CodeAnalyzerService.analyzeOnly end to end in the real Spring context, without the
+// web server. "inProcess" replaces the model with StubLlmProvider; "http" keeps
+// OpenAIClient and its transport and points it at a local StubLlmServer; "local" runs
+// with llm.provider=local, whose answers are the automatic fixes. Response
+// cache, suggestion cache and review history are disabled so every call does the full work.
+// tier=full always asks the model for suggestions and a refactor; tier=auto picks the
+// tier from the issues found, so "Clean" never reaches the model.
+// Most of the work runs on the analysis pool, so gc.alloc.rate.norm here only covers
+// what the calling thread allocates; PipelineBenchmark gives per-stage allocation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzeOnlyBenchmark {
+
+    @Param({Corpus.CLEAN, Corpus.TEST_INPUT, "1000", "10000", "50000"})
+    public String input;
+
+    @Param({"inProcess", "http", "local"})
+    public String provider;
+
+    @Param({"full", "auto"})
+    public String tier;
+
+    private String source;
+    private StubLlmServer stub;
+    private ConfigurableApplicationContext context;
+    private CodeAnalyzerService analyzer;
+    private RuleProfile profile;
+    private AnalysisTier requested;
+
+    @Setup
+    public void setUp() throws IOException {
+        source = Corpus.load(input);
+        SpringApplicationBuilder app = new SpringApplicationBuilder(AISmartCodeReviewerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "openai.cache.max-entries=0",
+                        "analysis.suggestion-cache.max-entries=0",
+                        "analysis.history.max-entries=0");
+        if ("http".equals(provider)) {
+            StubLlmServer.Options options = new StubLlmServer.Options();
+            options.port = 0;
+            stub = StubLlmServer.start(options);
+            app.properties("openai.base-url=" + stub.baseUrl(), "openai.api.key=stub");
+        } else if ("local".equals(provider)) {
+            app.properties("llm.provider=local");
+        } else {
+            app.initializers((ApplicationContextInitializer<GenericApplicationContext>) ctx ->
+                    ctx.registerBean(StubLlmProvider.class, bd -> bd.setPrimary(true)));
+        }
+        context = app.run();
+        analyzer = context.getBean(CodeAnalyzerService.class);
+        profile = context.getBean(RuleProfiles.class).defaultProfile();
+        requested = AnalysisTier.fromRequest(tier);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        if (stub != null) stub.close();
+    }
+
+    @Benchmark
+    public AnalysisResult analyzeOnly() {
+        return analyzer.analyzeAsync(input + ".java", source, profile, requested).join();
+    }
+}
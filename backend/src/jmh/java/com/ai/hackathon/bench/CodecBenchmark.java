@@ -0,0 +1,80 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.service.OpenAICodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// OpenAICodec vs. the previous String.format request building and regex extraction.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final Pattern LEGACY_CONTENT = Pattern.compile(
+            "\"content\":\\s*\"(.*?)\"(?=\\s*,\\s*\"refusal\"|\\s*})", Pattern.DOTALL);
+
+    @Param({"1000", "100000", "500000"})
+    public int contentChars;
+
+    private String prompt;
+    private String responseString;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setUp() {
+        String code = SourceGenerator.generate(contentChars / 30);
+        String content = code.length() > contentChars ? code.substring(0, contentChars) : code;
+        prompt = "Refactor this:\n```java\n" + content + "\n```";
+        String escaped = content.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        responseString = "{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\",\"created\":1,\"model\":\"gpt-4o-mini\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + escaped
+                + "\",\"refusal\":null},\"logprobs\":null,\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":10,\"total_tokens\":20}}";
+        responseBytes = responseString.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeLegacy() {
+        String body = String.format(
+                "{\"model\":\"gpt-4o-mini\",\"messages\":[{\"role\":\"user\",\"content\":\"%s\"}],\"max_tokens\":1000,\"temperature\":0.7}",
+                prompt.replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r"));
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeCodec() {
+        return OpenAICodec.encodeChatRequest("gpt-4o-mini", prompt, 1000, 0.7, false);
+    }
+
+    @Benchmark
+    public String decodeLegacyRegex() {
+        // the old path also decoded the body into a String first
+        String body = new String(responseBytes, StandardCharsets.UTF_8);
+        Matcher m = LEGACY_CONTENT.matcher(body);
+        if (!m.find()) return null;
+        return m.group(1).replace("\\n", "\n").replace("\\\"", "\"").replace("\\\\", "\\")
+                .replace("\\r", "\r").replace("\\t", "\t");
+    }
+
+    @Benchmark
+    public String decodeCodec() {
+        return OpenAICodec.decodeContent(responseBytes);
+    }
+}
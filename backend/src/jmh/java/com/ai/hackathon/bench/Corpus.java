@@ -0,0 +1,69 @@
+package com.ai.hackathon.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Benchmark inputs: "TestInput" is the repository's sample-data/TestInput.java, "Clean"
+// a small file no rule reports anything in, any number is a generated file of about
+// that many lines (see SourceGenerator).
+public final class Corpus {
+
+    public static final String TEST_INPUT = "TestInput";
+    public static final String CLEAN = "Clean";
+
+    private static final String CLEAN_SOURCE = """
+            package com.example;
+
+            import java.util.List;
+
+            public class Totals {
+
+                private final List<Integer> values;
+
+                public Totals(List<Integer> values) {
+                    this.values = List.copyOf(values);
+                }
+
+                public int sum() {
+                    int total = 0;
+                    for (int value : values) {
+                        total += value;
+                    }
+                    return total;
+                }
+
+                public double average() {
+                    return values.isEmpty() ? 0 : (double) sum() / values.size();
+                }
+            }
+            """;
+
+    private Corpus() {}
+
+    public static String load(String input) {
+        if (TEST_INPUT.equals(input)) {
+            return readSample("TestInput.java");
+        }
+        if (CLEAN.equals(input)) {
+            return CLEAN_SOURCE;
+        }
+        return SourceGenerator.generate(Integer.parseInt(input));
+    }
+
+    // Benchmarks run from backend/, the sample data lives next to it
+    private static String readSample(String name) {
+        for (String dir : new String[]{System.getProperty("corpus.dir", "../sample-data"), "sample-data"}) {
+            Path file = Path.of(dir, name);
+            if (Files.exists(file)) {
+                try {
+                    return Files.readString(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        throw new IllegalStateException("Cannot find sample-data/" + name + "; set -Dcorpus.dir");
+    }
+}
@@ -0,0 +1,77 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.fixes.FixEngine;
+import com.ai.hackathon.fixes.FixResult;
+import com.ai.hackathon.util.ParsedDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The automatic fixes: the old four visitor passes and full pretty-print ("legacy")
+// vs. the FixEngine's one dispatching walk and splicing of the edited ranges ("engine"),
+// on generated files where every method needs fixing, and the engine on the same files
+// once fixed ("engineClean", nothing fires so nothing is copied or printed). "files" and
+// "filesParallel" fix sixteen files one after another and all at once with the shared
+// engine.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixEngineBenchmark {
+
+    @Param({"1000", "10000"})
+    public int lines;
+
+    private final FixEngine engine = FixEngine.defaultEngine();
+    private ParsedDocument doc;
+    private ParsedDocument fixed;
+    private List<ParsedDocument> files;
+
+    @Setup
+    public void setUp() {
+        doc = ParsedDocument.parse(SourceGenerator.generate(lines));
+        fixed = ParsedDocument.parse(engine.apply(doc).document().source());
+        if (engine.apply(fixed).changed()) throw new IllegalStateException("fixes do not settle");
+        files = new ArrayList<>();
+        for (int i = 0; i < 16; i++) files.add(ParsedDocument.parse(SourceGenerator.generate(lines + i)));
+    }
+
+    @Benchmark
+    public ParsedDocument legacy() {
+        return LegacyRefactors.applyAstRefactors(doc);
+    }
+
+    @Benchmark
+    public FixResult engine() {
+        return engine.apply(doc);
+    }
+
+    @Benchmark
+    public FixResult engineClean() {
+        return engine.apply(fixed);
+    }
+
+    @Benchmark
+    public int files() {
+        return files.stream().mapToInt(f -> engine.apply(f).fired().size()).sum();
+    }
+
+    @Benchmark
+    public int filesParallel() {
+        return files.parallelStream().mapToInt(f -> engine.apply(f).fired().size()).sum();
+    }
+}
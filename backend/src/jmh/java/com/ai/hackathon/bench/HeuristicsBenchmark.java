@@ -0,0 +1,76 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.rules.MethodMetrics;
+import com.ai.hackathon.util.JavaHeuristics;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Rule engine vs. the old four-regex, substring-line-counting implementation, and the
+// method-size step on its own: pretty-printing every method and splitting it into lines
+// (the old long-method check) vs. all five MethodMetrics from positions and one walk.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeuristicsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int lines;
+
+    private String source;
+    private CompilationUnit cu;
+
+    @Setup
+    public void setUp() {
+        source = SourceGenerator.generate(lines);
+        cu = new JavaParser().parse(source).getResult()
+                .orElseThrow(() -> new IllegalStateException("generated source does not parse"));
+    }
+
+    @Benchmark
+    public List<Issue> legacy() {
+        return LegacyHeuristics.findIssuesWithLines(cu, source);
+    }
+
+    @Benchmark
+    public List<Issue> ruleEngine() {
+        return JavaHeuristics.findIssuesWithLines(cu, source);
+    }
+
+    @Benchmark
+    public int printedLines() {
+        int total = 0;
+        for (MethodDeclaration md : cu.findAll(MethodDeclaration.class)) {
+            total += md.toString().split("\\R").length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int methodMetrics() {
+        int total = 0;
+        for (MethodDeclaration md : cu.findAll(MethodDeclaration.class)) {
+            MethodMetrics m = MethodMetrics.of(md);
+            total += m.lines() + m.cognitive();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.model.Issue;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Verbatim copy of the pre-RuleEngine JavaHeuristics.findIssuesWithLines, kept only as a
+// benchmark baseline.
+final class LegacyHeuristics {
+
+    private LegacyHeuristics() {}
+
+    static List<Issue> findIssuesWithLines(CompilationUnit cu, String source) {
+        List<Issue> issues = new ArrayList<>();
+
+        cu.findAll(MethodCallExpr.class).forEach(mc -> {
+            if (mc.getScope().isPresent()) {
+                String scope = mc.getScope().get().toString();
+                String name = mc.getNameAsString();
+                if (("System.out".equals(scope) || scope.endsWith("System.out")) &&
+                        ("println".equals(name) || "print".equals(name))) {
+                    int line = mc.getBegin().map(p -> p.line).orElse(-1);
+                    issues.add(new Issue(line + 1, "Use of System.out.println — prefer a logging framework (SLF4J/Logback)."));
+                }
+            }
+        });
+
+        Pattern pTodo = Pattern.compile("TODO|FIXME");
+        Matcher mTodo = pTodo.matcher(source);
+        while (mTodo.find()) {
+            int pos = mTodo.start();
+            int line = source.substring(0, pos).split("\\R").length;
+            issues.add(new Issue(line, "Found TODO/FIXME comment — address before production."));
+        }
+
+        Pattern pCred = Pattern.compile("(?i)(password\\s*=\\s*\".+?\"|secret\\s*=\\s*\".+?\"|API_KEY\\s*=\\s*\".+?\")");
+        Matcher mCred = pCred.matcher(source);
+        while (mCred.find()) {
+            int pos = mCred.start();
+            int line = source.substring(0, pos).split("\\R").length;
+            issues.add(new Issue(line, "Possible hard-coded credential pattern — move secrets to config/secrets manager."));
+        }
+
+        Pattern pCatch = Pattern.compile("catch\\s*\\(\\s*Exception\\s+\\w+\\s*\\)", Pattern.CASE_INSENSITIVE);
+        Matcher mCatch = pCatch.matcher(source);
+        while (mCatch.find()) {
+            int pos = mCatch.start();
+            int line = source.substring(0, pos).split("\\R").length;
+            issues.add(new Issue(line, "Broad catch of Exception — catch specific exceptions and avoid swallowing errors."));
+        }
+
+        Pattern pSql = Pattern.compile("execute(Query|Update)\\s*\\(.*\\+.*\\)", Pattern.CASE_INSENSITIVE);
+        Matcher mSql = pSql.matcher(source);
+        while (mSql.find()) {
+            int pos = mSql.start();
+            int line = source.substring(0, pos).split("\\R").length;
+            issues.add(new Issue(line, "Possible SQL string concatenation — use PreparedStatement to prevent SQL injection."));
+        }
+
+        cu.findAll(MethodDeclaration.class).forEach(md -> {
+            int lines = md.toString().split("\\R").length;
+            if (lines > 50) {
+                int line = md.getBegin().map(p -> p.line).orElse(-1);
+                issues.add(new Issue(line + 1, "Long method '" + md.getName() + "' (" + lines + " lines) — consider refactoring."));
+            }
+        });
+
+        return issues;
+    }
+}
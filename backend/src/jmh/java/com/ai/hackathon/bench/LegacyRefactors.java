@@ -0,0 +1,121 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.comments.LineComment;
+import com.github.javaparser.ast.expr.ClassExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+// Verbatim copy of the pre-FixEngine JavaHeuristics.applyAstRefactors (four visitor
+// passes, then the whole unit pretty-printed), kept only as a benchmark baseline.
+final class LegacyRefactors {
+
+    private LegacyRefactors() {}
+
+    static ParsedDocument applyAstRefactors(ParsedDocument doc) {
+        try {
+            if (doc.isParsed()) {
+                CompilationUnit cu = doc.copyOfUnit();
+
+                // 1. Replace System.out.println with logging
+                cu.accept(new VoidVisitorAdapter<Void>() {
+                    @Override
+                    public void visit(MethodCallExpr n, Void arg) {
+                        if (n.getScope().isPresent() &&
+                                n.getScope().get().toString().equals("System.out") &&
+                                n.getNameAsString().equals("println")) {
+
+                            n.setScope(new NameExpr("logger"));
+                            n.setName("info");
+                        }
+                        super.visit(n, arg);
+                    }
+                }, null);
+
+                // 2. Remove TODO/FIXME comments
+                cu.accept(new VoidVisitorAdapter<Void>() {
+                    @Override
+                    public void visit(LineComment n, Void arg) {
+                        String comment = n.getContent().toLowerCase();
+                        if (comment.contains("todo") || comment.contains("fixme")) {
+                            n.remove();
+                        }
+                        super.visit(n, arg);
+                    }
+                }, null);
+
+                // 3. Replace hard-coded credentials with config
+                cu.accept(new VoidVisitorAdapter<Void>() {
+                    @Override
+                    public void visit(VariableDeclarator n, Void arg) {
+                        if (n.getNameAsString().toLowerCase().contains("password") ||
+                                n.getNameAsString().toLowerCase().contains("secret") ||
+                                n.getNameAsString().toLowerCase().contains("key")) {
+
+                            if (n.getInitializer().isPresent()) {
+                                // Replace with environment variable or config
+                                n.setInitializer(new MethodCallExpr(
+                                        new NameExpr("System"), "getenv",
+                                        new NodeList<>(new StringLiteralExpr("APP_PASSWORD"))
+                                ));
+                            }
+                        }
+                        super.visit(n, arg);
+                    }
+                }, null);
+
+                // 4. Replace broad Exception catching with specific exceptions
+                cu.accept(new VoidVisitorAdapter<Void>() {
+                    @Override
+                    public void visit(CatchClause n, Void arg) {
+                        if (n.getParameter().getType().toString().equals("Exception")) {
+                            // Replace with ArithmeticException for division by zero
+                            n.getParameter().setType("ArithmeticException");
+                        }
+                        super.visit(n, arg);
+                    }
+                }, null);
+
+                // 5. Add necessary imports
+                cu.addImport("org.slf4j.Logger");
+                cu.addImport("org.slf4j.LoggerFactory");
+
+                // 6. Add logger field if it doesn't exist
+                boolean hasLogger = cu.getTypes().stream()
+                        .anyMatch(type -> type.getFields().stream()
+                                .anyMatch(field -> field.getVariable(0).getNameAsString().equals("logger")));
+
+                if (!hasLogger && !cu.getTypes().isEmpty()) {
+                    TypeDeclaration<?> mainClass = cu.getType(0);
+                    FieldDeclaration loggerField = new FieldDeclaration()
+                            .addModifier(Modifier.Keyword.PRIVATE, Modifier.Keyword.STATIC, Modifier.Keyword.FINAL)
+                            .addVariable(new VariableDeclarator()
+                                    .setType("Logger")
+                                    .setName("logger")
+                                    .setInitializer(new MethodCallExpr(
+                                            new NameExpr("LoggerFactory"), "getLogger",
+                                            new NodeList<>(new ClassExpr(new ClassOrInterfaceType(mainClass.getNameAsString())))
+                                    )));
+
+                    mainClass.getMembers().add(0, loggerField);
+                }
+
+                return ParsedDocument.of(cu.toString(), cu);
+            }
+        } catch (Exception e) {
+            System.err.println("Error during AST refactoring: " + e.getMessage());
+        }
+
+        return doc; // Return original if refactoring fails
+    }
+}
@@ -0,0 +1,105 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.util.LshIndex;
+import com.ai.hackathon.util.MinHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Finding every near-duplicate pair among n method bodies, as the near-duplicate rule
+// does across a project: "lsh" indexes all signatures and looks each one up, "pairwise"
+// compares every pair of signatures. Bodies are random shingle sets of 40 to 200
+// shingles; one in twenty is a copy of an earlier body with a tenth of its shingles
+// replaced. Both return the number of pairs at or above the similarity threshold, so
+// the recall of the LSH lookup can be read off against the exhaustive count.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NearDuplicateBenchmark {
+
+    private static final double THRESHOLD = 0.8;
+
+    @State(Scope.Benchmark)
+    public static class Lsh {
+        @Param({"1000", "10000", "50000"})
+        public int methods;
+
+        int[][] signatures;
+
+        @Setup
+        public void setUp() {
+            signatures = signatures(methods);
+        }
+    }
+
+    // Quadratic, so only up to a size that finishes
+    @State(Scope.Benchmark)
+    public static class Pairwise {
+        @Param({"1000", "5000"})
+        public int methods;
+
+        int[][] signatures;
+
+        @Setup
+        public void setUp() {
+            signatures = signatures(methods);
+        }
+    }
+
+    @Benchmark
+    public int lsh(Lsh state) {
+        LshIndex index = new LshIndex();
+        int pairs = 0;
+        for (int[] signature : state.signatures) {
+            for (int id : index.candidates(signature, 256)) {
+                if (MinHash.similarity(signature, index.signature(id)) >= THRESHOLD) pairs++;
+            }
+            index.add(signature);
+        }
+        return pairs;
+    }
+
+    @Benchmark
+    public int pairwise(Pairwise state) {
+        int[][] signatures = state.signatures;
+        int pairs = 0;
+        for (int i = 0; i < signatures.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (MinHash.similarity(signatures[i], signatures[j]) >= THRESHOLD) pairs++;
+            }
+        }
+        return pairs;
+    }
+
+    static int[][] signatures(int methods) {
+        SplittableRandom random = new SplittableRandom(42);
+        long[][] bodies = new long[methods][];
+        int[][] signatures = new int[methods][];
+        for (int i = 0; i < methods; i++) {
+            long[] shingles;
+            if (i > 0 && random.nextInt(20) == 0) {
+                shingles = bodies[random.nextInt(i)].clone();
+                for (int k = 0; k < shingles.length / 10; k++) shingles[random.nextInt(shingles.length)] = random.nextLong();
+            } else {
+                shingles = new long[40 + random.nextInt(161)];
+                for (int k = 0; k < shingles.length; k++) shingles[k] = random.nextLong();
+            }
+            bodies[i] = shingles;
+            signatures[i] = MinHash.signature(shingles);
+        }
+        return signatures;
+    }
+}
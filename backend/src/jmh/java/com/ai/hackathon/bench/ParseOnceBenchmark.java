@@ -0,0 +1,65 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.util.JavaHeuristics;
+import com.ai.hackathon.util.ParsedDocument;
+import com.ai.hackathon.util.ScoreEngine;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The local (non-LLM) part of CodeAnalyzerService.analyzeOnly: detect, AST refactor,
+// rescore. "reparse" is the old flow with three parses, "parseOnce" the shared document.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseOnceBenchmark {
+
+    @Param({"200", "2000", "20000"})
+    public int lines;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        source = SourceGenerator.generate(lines);
+    }
+
+    @Benchmark
+    public int reparse() {
+        JavaParser parser = new JavaParser();
+        CompilationUnit cu = parser.parse(source).getResult().orElseThrow();
+        int score = ScoreEngine.scoreFromIssues(JavaHeuristics.findIssuesWithLines(cu, source));
+
+        String refactored = JavaHeuristics.applyAstRefactors(source);
+        CompilationUnit cu2 = parser.parse(refactored).getResult().orElseThrow();
+        List<Issue> refactoredIssues = JavaHeuristics.findIssuesWithLines(cu2, refactored);
+        return score + ScoreEngine.scoreFromIssues(refactoredIssues);
+    }
+
+    @Benchmark
+    public int parseOnce() {
+        ParsedDocument doc = ParsedDocument.parse(source);
+        int score = ScoreEngine.scoreFromIssues(JavaHeuristics.findIssuesWithLines(doc));
+
+        ParsedDocument refactored = JavaHeuristics.applyAstRefactors(doc);
+        List<Issue> refactoredIssues = JavaHeuristics.findIssuesWithLines(refactored);
+        return score + ScoreEngine.scoreFromIssues(refactoredIssues);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.util.JavaHeuristics;
+import com.ai.hackathon.util.ParsedDocument;
+import com.ai.hackathon.util.ScoreEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Each local stage of the analysis on its own, over the corpus from the sample file up
+// to 50k lines. Run with the default report args to get gc.alloc.rate.norm per stage.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({Corpus.TEST_INPUT, "1000", "10000", "50000"})
+    public String input;
+
+    private String source;
+    private ParsedDocument doc;
+    private List<Issue> issues;
+
+    @Setup
+    public void setUp() {
+        source = Corpus.load(input);
+        doc = ParsedDocument.parse(source);
+        if (!doc.isParsed()) throw new IllegalStateException(input + " does not parse");
+        issues = JavaHeuristics.findIssuesWithLines(doc);
+    }
+
+    @Benchmark
+    public ParsedDocument parse() {
+        return ParsedDocument.parse(source);
+    }
+
+    @Benchmark
+    public List<Issue> findIssuesWithLines() {
+        return JavaHeuristics.findIssuesWithLines(doc);
+    }
+
+    @Benchmark
+    public ParsedDocument applyAstRefactors() {
+        return JavaHeuristics.applyAstRefactors(doc);
+    }
+
+    @Benchmark
+    public int scoreFromIssues() {
+        return ScoreEngine.scoreFromIssues(issues);
+    }
+}
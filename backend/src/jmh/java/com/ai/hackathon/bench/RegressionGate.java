@@ -0,0 +1,98 @@
+package com.ai.hackathon.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compares a JMH JSON report (-rf json) with a saved baseline and exits with 1 when a
+// benchmark present in both got worse by more than the threshold: lower throughput,
+// higher time per op, or more bytes allocated per op (gc.alloc.rate.norm, if both
+// runs used -prof gc). Usage: RegressionGate <baseline.json> <current.json> [threshold]
+public final class RegressionGate {
+
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    // Allocation changes below this many bytes per op are noise, whatever the percentage
+    private static final double ALLOC_SLACK_BYTES = 64;
+
+    private RegressionGate() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: RegressionGate <baseline.json> <current.json> [threshold, default 0.10]");
+            System.exit(2);
+        }
+        Path baselineFile = Path.of(args[0]);
+        if (!Files.exists(baselineFile)) {
+            System.err.println("No baseline at " + baselineFile + "; save a run first, e.g. cp " + args[1] + " " + args[0]);
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+        Map<String, JsonNode> baseline = read(baselineFile);
+        Map<String, JsonNode> current = read(Path.of(args[1]));
+        int compared = 0;
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode base = baseline.get(e.getKey());
+            if (base == null) continue;
+            JsonNode run = e.getValue();
+            boolean higherIsBetter = "thrpt".equals(run.path("mode").asText());
+
+            compared++;
+            regressions += check(e.getKey(), run.path("primaryMetric"), base.path("primaryMetric"), higherIsBetter, threshold, 0);
+            JsonNode alloc = secondary(run, ALLOC);
+            JsonNode baseAlloc = secondary(base, ALLOC);
+            if (alloc != null && baseAlloc != null) {
+                regressions += check(e.getKey() + " [" + ALLOC + "]", alloc, baseAlloc, false, threshold, ALLOC_SLACK_BYTES);
+            }
+        }
+        System.out.printf("%d benchmarks compared, %d regressions beyond %.0f%%%n", compared, regressions, threshold * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static int check(String name, JsonNode metric, JsonNode baseMetric, boolean higherIsBetter,
+                             double threshold, double slack) {
+        double score = metric.path("score").asDouble();
+        double base = baseMetric.path("score").asDouble();
+        String unit = metric.path("scoreUnit").asText();
+        if (!unit.equals(baseMetric.path("scoreUnit").asText())) {
+            System.out.println("SKIP " + name + ": unit changed from " + baseMetric.path("scoreUnit").asText() + " to " + unit);
+            return 0;
+        }
+        if (base == 0) return 0;
+        double worse = higherIsBetter ? (base - score) / base : (score - base) / base;
+        boolean regressed = worse > threshold && Math.abs(score - base) > slack;
+        System.out.printf("%s %s: %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "FAIL" : "ok  ", name, base, score, unit,
+                (score - base) / base * 100);
+        return regressed ? 1 : 0;
+    }
+
+    // Older JMH versions prefix secondary metric names with a middle dot
+    private static JsonNode secondary(JsonNode run, String name) {
+        Iterator<Map.Entry<String, JsonNode>> it = run.path("secondaryMetrics").fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> e = it.next();
+            if (e.getKey().replace("·", "").equals(name)) return e.getValue();
+        }
+        return null;
+    }
+
+    // Keyed by benchmark method and its parameters
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+            runs.put(run.path("benchmark").asText() + (params.isEmpty() ? "" : " " + params), run);
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,113 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.rules.BuiltInRules;
+import com.ai.hackathon.rules.MethodMetrics;
+import com.ai.hackathon.rules.RuleEngineFactory;
+import com.ai.hackathon.rules.RuleProfile;
+import com.ai.hackathon.service.RuleProfiles;
+import com.ai.hackathon.util.ParsedDocument;
+import com.ai.hackathon.util.ScoringProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Rule profiles: "reload" is what the file watcher does on a change (read the YAML,
+// bind and compile every profile, build the map that is swapped in); "lookup" is the
+// per-request cost of picking a profile; "heuristicsDefault" and "heuristicsSelected"
+// are the rule scan and scoring of one file with the default profile and with a
+// profile with the same settings picked from the reloaded map, which should not tell
+// apart.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleProfileBenchmark {
+
+    @Param({"1", "20"})
+    public int profiles;
+
+    @Param({"1000"})
+    public int lines;
+
+    private Path file;
+    private RuleProfiles.Compiler compiler;
+    private RuleProfile defaultProfile;
+    private volatile Map<String, RuleProfile> compiled;
+    private String selected;
+    private ParsedDocument doc;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // p0 repeats the default settings, so both heuristics runs do the same work
+        StringBuilder yaml = new StringBuilder("profiles:\n  p0:\n    score-floor: 40\n");
+        for (int i = 1; i < profiles; i++) {
+            yaml.append("  p").append(i).append(":\n")
+                    .append("    score-floor: ").append(i % 41).append('\n')
+                    .append("    metrics: { max-lines: ").append(30 + i).append(", max-cognitive: ").append(10 + i % 6).append(" }\n")
+                    .append("    weights: { broad-catch: ").append(5 + i).append(", todo: 1 }\n")
+                    .append("    disabled: [ inconsistent-logging ]\n");
+        }
+        file = Files.createTempFile("rule-profiles", ".yml");
+        Files.writeString(file, yaml);
+
+        Map<MethodMetrics.Metric, Integer> limits = new EnumMap<>(MethodMetrics.Metric.class);
+        for (MethodMetrics.Metric metric : MethodMetrics.Metric.values()) limits.put(metric, metric.defaultLimit());
+        RuleEngineFactory engines = new RuleEngineFactory(64);
+        compiler = new RuleProfiles.Compiler(limits, List.of(), ScoringProfile.DEFAULT, 40, engines);
+        defaultProfile = new RuleProfile(RuleProfile.DEFAULT, engines.create(BuiltInRules.all()), ScoringProfile.DEFAULT, 40, Set.of());
+        compiled = reload();
+        selected = "p0";
+        doc = ParsedDocument.parse(SourceGenerator.generate(lines));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Map<String, RuleProfile> reload() throws IOException {
+        Map<String, RuleProfile> loaded = new HashMap<>(compiler.compile(file));
+        loaded.put(RuleProfile.DEFAULT, defaultProfile);
+        return Map.copyOf(loaded);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public RuleProfile lookup() {
+        return compiled.get(selected);
+    }
+
+    @Benchmark
+    public int heuristicsDefault() {
+        return defaultProfile.score(defaultProfile.run(doc));
+    }
+
+    @Benchmark
+    public int heuristicsSelected() {
+        RuleProfile profile = compiled.get(selected);
+        return profile.score(profile.run(doc));
+    }
+}
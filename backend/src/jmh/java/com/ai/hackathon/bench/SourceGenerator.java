@@ -0,0 +1,43 @@
+package com.ai.hackathon.bench;
+
+// Builds synthetic but parseable Java files of a requested size that trigger every
+// built-in heuristic at a steady rate, roughly like generated or legacy code.
+public final class SourceGenerator {
+
+    private SourceGenerator() {}
+
+    public static String generate(int targetLines) {
+        StringBuilder sb = new StringBuilder(targetLines * 40);
+        sb.append("package com.example.generated;\n\n");
+        sb.append("import java.sql.Statement;\n\n");
+        sb.append("public class Generated").append(targetLines).append(" {\n\n");
+        int lines = 5;
+        int method = 0;
+        while (lines < targetLines - 1) {
+            lines += appendMethod(sb, method++);
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static int appendMethod(StringBuilder sb, int n) {
+        int lines = 0;
+        sb.append("    // TODO: revisit method").append(n).append('\n'); lines++;
+        sb.append("    public int method").append(n).append("(Statement st, String id) {\n"); lines++;
+        sb.append("        String password = \"secret").append(n).append("\";\n"); lines++;
+        sb.append("        int total = 0;\n"); lines++;
+        // every tenth method is long enough to trip the long-method check
+        int loops = n % 10 == 0 ? 55 : 8;
+        for (int i = 0; i < loops; i++) {
+            sb.append("        total += id.length() * ").append(i).append(";\n"); lines++;
+        }
+        sb.append("        try {\n"); lines++;
+        sb.append("            st.executeQuery(\"select * from t where id = \" + id);\n"); lines++;
+        sb.append("        } catch (Exception e) {\n"); lines++;
+        sb.append("            System.out.println(\"failed \" + e);\n"); lines++;
+        sb.append("        }\n"); lines++;
+        sb.append("        return total;\n"); lines++;
+        sb.append("    }\n\n"); lines += 2;
+        return lines;
+    }
+}
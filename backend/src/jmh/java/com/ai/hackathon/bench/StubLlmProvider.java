@@ -0,0 +1,28 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.service.LlmProvider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// In-process model stand-in with the same answers as StubLlmServer, so a benchmark
+// measures the analysis pipeline without any transport.
+public class StubLlmProvider implements LlmProvider {
+
+    @Override
+    public String model() {
+        return "stub";
+    }
+
+    @Override
+    public CompletableFuture<String> askModelAsync(String prompt, int maxTokens) {
+        return CompletableFuture.completedFuture(StubLlmServer.synthesize(prompt));
+    }
+
+    @Override
+    public CompletableFuture<String> streamModelAsync(String prompt, Consumer<String> onToken) {
+        String content = StubLlmServer.synthesize(prompt);
+        onToken.accept(content);
+        return CompletableFuture.completedFuture(content);
+    }
+}
@@ -0,0 +1,224 @@
+package com.ai.hackathon.bench;
+
+import com.ai.hackathon.service.OpenAICodec;
+import com.ai.hackathon.util.Digests;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+// OpenAI-compatible /v1/chat/completions stub for offline load and failure testing.
+// Answers with responses recorded through openai.record-dir (looked up by the same
+// key as the response cache), or else with a synthetic answer that echoes the prompt's
+// code block. Latency, injected 429/503 errors and a requests-per-minute limit with
+// x-ratelimit headers are configurable:
+//
+//   mvn -Pjmh test-compile exec:java -Dexec.mainClass=com.ai.hackathon.bench.StubLlmServer \
+//       -Dexec.args="--port=8089 --records=/tmp/llm-records --latency=300ms --error-rate=0.05 --rpm=600"
+//
+// then start the app with --openai.base-url=http://localhost:8089/v1 --openai.api.key=stub
+public final class StubLlmServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static final class Options {
+        public int port = 8089;
+        public Path records;
+        public Duration latency = Duration.ZERO;
+        public double errorRate;
+        public int requestsPerMinute;
+    }
+
+    private final Options options;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "stub-llm");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private long windowStart = System.nanoTime();
+    private int windowCount;
+
+    private StubLlmServer(Options options) throws IOException {
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public static StubLlmServer start(Options options) throws IOException {
+        StubLlmServer stub = new StubLlmServer(options);
+        stub.server.start();
+        return stub;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port() + "/v1";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            sleep(options.latency);
+
+            int remaining = takeFromWindow();
+            exchange.getResponseHeaders().add("x-ratelimit-limit-requests", Integer.toString(options.requestsPerMinute));
+            exchange.getResponseHeaders().add("x-ratelimit-remaining-requests", Integer.toString(Math.max(remaining, 0)));
+            exchange.getResponseHeaders().add("x-ratelimit-reset-requests", windowResetSeconds() + "s");
+            if (options.requestsPerMinute > 0 && remaining < 0) {
+                exchange.getResponseHeaders().add("retry-after", Long.toString(windowResetSeconds()));
+                sendError(exchange, 429, "Rate limit reached for requests");
+                return;
+            }
+            if (ThreadLocalRandom.current().nextDouble() < options.errorRate) {
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    exchange.getResponseHeaders().add("retry-after", "1");
+                    sendError(exchange, 429, "Injected rate limit error");
+                } else {
+                    sendError(exchange, 503, "Injected server error");
+                }
+                return;
+            }
+
+            String prompt = request.path("messages").path(0).path("content").asText("");
+            byte[] recorded = recorded(request, prompt);
+            if (request.path("stream").asBoolean(false)) {
+                String content = recorded != null ? OpenAICodec.decodeContent(recorded) : synthesize(prompt);
+                stream(exchange, content == null ? "" : content);
+            } else {
+                byte[] body = recorded != null ? recorded : completion(synthesize(prompt));
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        }
+    }
+
+    // Same key as LlmResponseCache: model, max_tokens, temperature and prompt
+    private byte[] recorded(JsonNode request, String prompt) throws IOException {
+        if (options.records == null) return null;
+        String key = Digests.sha256Hex(request.path("model").asText(),
+                Integer.toString(request.path("max_tokens").asInt()),
+                Double.toString(request.path("temperature").asDouble()), prompt);
+        Path file = options.records.resolve(key + ".json");
+        return Files.exists(file) ? Files.readAllBytes(file) : null;
+    }
+
+    static String synthesize(String prompt) {
+        int start = prompt.indexOf("```java");
+        int end = prompt.indexOf("```", start + 7);
+        if (start >= 0 && end > start) {
+            return "```java\n" + prompt.substring(start + 7, end).trim() + "\n```";
+        }
+        return "1. **Logging**: Calls to System.out.println should be replaced with an SLF4J logger.\n"
+                + "2. **Exceptions**: Broad catch blocks should handle the specific exception types instead.\n"
+                + "The code contains a few maintainability issues that should be addressed before release.";
+    }
+
+    private static byte[] completion(String content) throws IOException {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("object", "chat.completion");
+        ObjectNode choice = root.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.putObject("message").put("role", "assistant").put("content", content);
+        choice.put("finish_reason", "stop");
+        return MAPPER.writeValueAsBytes(root);
+    }
+
+    // Server-sent events in the chat completions chunk format, a few words per chunk
+    private static void stream(HttpExchange exchange, String content) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        for (int i = 0; i < content.length(); ) {
+            int next = Math.min(content.length(), i + 16);
+            ObjectNode chunk = MAPPER.createObjectNode();
+            chunk.putArray("choices").addObject().putObject("delta").put("content", content.substring(i, next));
+            out.write(("data: " + MAPPER.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            i = next;
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.putObject("error").put("message", message);
+        byte[] body = MAPPER.writeValueAsBytes(root);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    // Requests left in the current one-minute window after this one; negative when over the limit
+    private synchronized int takeFromWindow() {
+        if (System.nanoTime() - windowStart >= 60_000_000_000L) {
+            windowStart = System.nanoTime();
+            windowCount = 0;
+        }
+        windowCount++;
+        return options.requestsPerMinute > 0 ? options.requestsPerMinute - windowCount : Integer.MAX_VALUE;
+    }
+
+    private synchronized long windowResetSeconds() {
+        return Math.max(1, 60 - (System.nanoTime() - windowStart) / 1_000_000_000L);
+    }
+
+    private static void sleep(Duration latency) {
+        if (latency.isZero()) return;
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // "300ms", "2s" or plain milliseconds
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        if (value.endsWith("s")) return Duration.ofMillis((long) (Double.parseDouble(value.substring(0, value.length() - 1)) * 1000));
+        return Duration.ofMillis(Long.parseLong(value));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options();
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "port" -> options.port = Integer.parseInt(value);
+                case "records" -> options.records = Path.of(value);
+                case "latency" -> options.latency = parseDuration(value);
+                case "error-rate" -> options.errorRate = Double.parseDouble(value);
+                case "rpm" -> options.requestsPerMinute = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        StubLlmServer stub = start(options);
+        System.out.println("Stub LLM listening on " + stub.baseUrl());
+        Thread.currentThread().join();
+    }
+}
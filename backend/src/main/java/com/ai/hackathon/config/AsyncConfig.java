@@ -0,0 +1,27 @@
+package com.ai.hackathon.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class AsyncConfig {
+
+    // CPU-bound stages (parse, heuristics, AST refactor, rescore). Model calls never
+    // occupy these threads; they wait inside the async HttpClient instead.
+    @Bean(name = "analysisExecutor")
+    public Executor analysisExecutor(@Value("${analysis.pool-size:0}") int poolSize,
+                                     @Value("${analysis.queue-capacity:1000}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("analysis-");
+        executor.initialize();
+        return executor;
+    }
+}
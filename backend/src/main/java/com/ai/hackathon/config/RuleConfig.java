@@ -0,0 +1,149 @@
+package com.ai.hackathon.config;
+
+import com.ai.hackathon.fixes.BuiltInFixes;
+import com.ai.hackathon.fixes.FixEngine;
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.model.Severity;
+import com.ai.hackathon.rules.BuiltInRules;
+import com.ai.hackathon.rules.MethodMetrics;
+import com.ai.hackathon.rules.Rule;
+import com.ai.hackathon.rules.RuleEngine;
+import com.ai.hackathon.rules.RuleEngineFactory;
+import com.ai.hackathon.rules.RuleStats;
+import com.ai.hackathon.rules.TextRule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Configuration
+public class RuleConfig {
+
+    // One entry of rules.custom[n]
+    public static class CustomRule {
+        private String id;
+        private String regex;
+        private String message;
+        private Severity severity = RuleId.CUSTOM.severity();
+        private int weight = RuleId.CUSTOM.weight();
+        private boolean caseInsensitive;
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getRegex() { return regex; }
+        public void setRegex(String regex) { this.regex = regex; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+        public Severity getSeverity() { return severity; }
+        public void setSeverity(Severity severity) { this.severity = severity; }
+        public int getWeight() { return weight; }
+        public void setWeight(int weight) { this.weight = weight; }
+        public boolean isCaseInsensitive() { return caseInsensitive; }
+        public void setCaseInsensitive(boolean caseInsensitive) { this.caseInsensitive = caseInsensitive; }
+    }
+
+    // The built-in rules with method metric limits from analysis.metrics.max-*, followed
+    // by the custom text rules from rules.custom; every regex is compiled here, once,
+    // and a broken one stops the application from starting
+    @Bean
+    public RuleEngine ruleEngine(Environment environment, RuleEngineFactory ruleEngineFactory) {
+        List<Rule> rules = new ArrayList<>(BuiltInRules.all(metricLimits(environment)));
+        rules.addAll(customRules(environment));
+        return ruleEngineFactory.create(rules);
+    }
+
+    // Every engine, the rule profiles' included, samples at rules.sample-every and
+    // counts into the same RuleStats
+    @Bean
+    public RuleEngineFactory ruleEngineFactory(Environment environment) {
+        return new RuleEngineFactory(environment.getProperty("rules.sample-every", Integer.class, 64));
+    }
+
+    // Every metric's limit from analysis.metrics.max-*; rule profiles start from these too
+    public static Map<MethodMetrics.Metric, Integer> metricLimits(Environment environment) {
+        Map<MethodMetrics.Metric, Integer> limits = new EnumMap<>(MethodMetrics.Metric.class);
+        for (MethodMetrics.Metric metric : MethodMetrics.Metric.values()) {
+            limits.put(metric, environment.getProperty("analysis.metrics." + metric.property(), Integer.class,
+                    metric.defaultLimit()));
+        }
+        return limits;
+    }
+
+    // rules.matches{rule} counts issues; rules.time{rule} is the rule's time per timed run.
+    // Profiles only drop rules of the default engine, so its ids cover them all.
+    @Bean
+    public MeterBinder ruleMetrics(RuleEngine engine, RuleEngineFactory ruleEngineFactory) {
+        return registry -> {
+            for (Rule rule : engine.rules()) {
+                RuleStats.Counters counters = ruleEngineFactory.stats().of(rule.id());
+                FunctionCounter.builder("rules.matches", counters, RuleStats.Counters::matches)
+                        .tag("rule", rule.id()).register(registry);
+                FunctionTimer.builder("rules.time", counters, RuleStats.Counters::sampledRuns,
+                        RuleStats.Counters::sampledNanos, TimeUnit.NANOSECONDS)
+                        .tag("rule", rule.id()).register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public FixEngine fixEngine() {
+        return new FixEngine(BuiltInFixes.all());
+    }
+
+    // fixes.applied{fix} counts the files each fix changed
+    @Bean
+    public MeterBinder fixMetrics(FixEngine engine) {
+        return registry -> {
+            for (int i = 0; i < engine.fixes().size(); i++) {
+                int idx = i;
+                FunctionCounter.builder("fixes.applied", engine, e -> e.applied(idx))
+                        .tag("fix", engine.fixes().get(i).id()).register(registry);
+            }
+        };
+    }
+
+    static List<Rule> customRules(Environment environment) {
+        List<CustomRule> configured = Binder.get(environment)
+                .bind("rules.custom", Bindable.listOf(CustomRule.class))
+                .orElse(List.of());
+        Set<String> ids = new HashSet<>();
+        BuiltInRules.all().forEach(r -> ids.add(r.id()));
+        List<Rule> rules = new ArrayList<>();
+        for (CustomRule c : configured) {
+            if (c.getId() == null || c.getRegex() == null || c.getMessage() == null) {
+                throw new IllegalStateException("Custom rule " + c.getId() + " needs an id, a regex and a message");
+            }
+            if (RuleId.fromId(c.getId()) != RuleId.CUSTOM || !ids.add(c.getId())) {
+                throw new IllegalStateException("Custom rule id '" + c.getId() + "' is already taken");
+            }
+            try {
+                rules.add(new TextRule(c.getId(), c.getRegex(), c.isCaseInsensitive() ? Pattern.CASE_INSENSITIVE : 0,
+                        c.getMessage(), c.getSeverity(), c.getWeight()));
+                // Merged with the rules before it, as every engine will
+                new RuleEngine(concat(BuiltInRules.all(), rules));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Custom rule '" + c.getId() + "' is invalid: " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    private static List<Rule> concat(List<Rule> first, List<Rule> second) {
+        List<Rule> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
@@ -0,0 +1,119 @@
+package com.ai.hackathon.controller;
+
+import com.ai.hackathon.model.AnalysisJob;
+import com.ai.hackathon.service.JobService;
+import com.ai.hackathon.service.ReviewHistory;
+import com.ai.hackathon.service.RuleProfiles;
+import com.ai.hackathon.service.SourceUploads;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+// Queued reviews for clients that cannot hold a request open for the model calls:
+// submit, then poll GET /api/jobs/{id} or subscribe to /api/jobs/{id}/events
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private SourceUploads uploads;
+
+    @Autowired
+    private RuleProfiles ruleProfiles;
+
+    @Value("${jobs.events-timeout:30m}")
+    private Duration eventsTimeout;
+
+    // mode=full runs the whole review; mode=heuristics skips the model and has its own
+    // faster lane. Higher priority jobs are taken first within a lane. profile names a
+    // rule profile; the default profile is used without one.
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AnalysisJob> submit(@RequestParam("file") MultipartFile file,
+                                              @RequestParam(value = "mode", defaultValue = AnalysisJob.MODE_FULL) String mode,
+                                              @RequestParam(value = "profile", required = false) String profile,
+                                              @RequestParam(value = "priority", defaultValue = "0") int priority) throws IOException {
+        if (!mode.equals(AnalysisJob.MODE_FULL) && !mode.equals(AnalysisJob.MODE_HEURISTICS)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode must be 'full' or 'heuristics'");
+        }
+        // Unknown names are rejected now rather than when the job runs
+        ruleProfiles.get(profile);
+        SourceUploads.Upload upload = uploads.read(file);
+        try {
+            AnalysisJob job = jobService.submit(file.getOriginalFilename(), upload.text(), mode, profile, priority);
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getId())).body(job);
+        } finally {
+            upload.release();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public AnalysisJob status(@PathVariable String id,
+                              @RequestParam(value = "view", defaultValue = "full") String view) {
+        boolean summary = ReviewController.isSummary(view);
+        AnalysisJob job = jobService.get(id);
+        if (job == null) throw unknownJob(id);
+        return summary ? summarize(job) : job;
+    }
+
+    // A "status" event on every change; the stream ends once the job is done or failed
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String id,
+                             @RequestParam(value = "view", defaultValue = "full") String view) {
+        boolean summary = ReviewController.isSummary(view);
+        SseEmitter emitter = new SseEmitter(eventsTimeout.toMillis());
+        AnalysisJob job = jobService.subscribe(id, changed -> {
+            try {
+                synchronized (emitter) {
+                    emitter.send(SseEmitter.event().name("status")
+                            .data(summary ? summarize(changed) : changed, MediaType.APPLICATION_JSON));
+                }
+                if (changed.getStatus().isFinished()) emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // client went away; the job carries on
+            }
+        });
+        if (job == null) throw unknownJob(id);
+        return emitter;
+    }
+
+    private static AnalysisJob summarize(AnalysisJob job) {
+        if (job.getResult() == null) return job;
+        AnalysisJob copy = new AnalysisJob();
+        synchronized (job) {
+            copy.setId(job.getId());
+            copy.setFileName(job.getFileName());
+            copy.setMode(job.getMode());
+            copy.setProfile(job.getProfile());
+            copy.setPriority(job.getPriority());
+            copy.setStatus(job.getStatus());
+            copy.setSubmittedAt(job.getSubmittedAt());
+            copy.setStartedAt(job.getStartedAt());
+            copy.setFinishedAt(job.getFinishedAt());
+            copy.setError(job.getError());
+            copy.setResult(ReviewHistory.summarize(job.getResult()));
+        }
+        return copy;
+    }
+
+    private static ResponseStatusException unknownJob(String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown or expired job " + id);
+    }
+}
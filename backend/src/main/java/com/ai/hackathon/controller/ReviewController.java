@@ -1,14 +1,42 @@
 package com.ai.hackathon.controller;
 
 import com.ai.hackathon.model.AnalysisResult;
+import com.ai.hackathon.model.AnalysisTier;
+import com.ai.hackathon.rules.RuleProfile;
+import com.ai.hackathon.service.AnalysisListener;
+import com.ai.hackathon.service.BatchAnalysisService;
 import com.ai.hackathon.service.CodeAnalyzerService;
+import com.ai.hackathon.service.IncrementalAnalyzer;
+import com.ai.hackathon.service.LlmResponseCache;
+import com.ai.hackathon.service.ReviewHistory;
+import com.ai.hackathon.service.RuleProfiles;
+import com.ai.hackathon.service.SourceUploads;
+import com.ai.hackathon.util.CompressedText;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")
@@ -17,9 +45,216 @@ public class ReviewController {
     @Autowired
     private CodeAnalyzerService analyzerService;
 
+    @Autowired
+    private LlmResponseCache llmCache;
+
+    @Autowired
+    private BatchAnalysisService batchService;
+
+    @Autowired
+    private IncrementalAnalyzer incrementalAnalyzer;
+
+    @Autowired
+    private ReviewHistory history;
+
+    @Autowired
+    private SourceUploads uploads;
+
+    @Autowired
+    private RuleProfiles ruleProfiles;
+
+    @Value("${analysis.stream-timeout:150s}")
+    private Duration streamTimeout;
+
+    @Value("${batch.timeout:30m}")
+    private Duration batchTimeout;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType JAVA_SOURCE = MediaType.parseMediaType("text/plain;charset=UTF-8");
+    private static final MediaType UNIFIED_DIFF = MediaType.parseMediaType("text/x-diff;charset=UTF-8");
+
+    // view=full (default) echoes both sources; view=summary returns issues and scores with
+    // the refactored source as a unified diff, and the bodies stay on the server under
+    // /api/results/{versionId}. Every analysis endpoint takes an optional profile naming
+    // the rule profile to review with (thresholds, weights, score floor).
+    // tier=auto (default) asks the model only about files with issues, and for a refactor
+    // only when one is severe enough; heuristics, suggestions or full force a tier.
     @PostMapping(value = "/analyze", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public AnalysisResult analyze(@RequestParam("file") MultipartFile file) throws Exception {
-        String content = new String(file.getBytes());
-        return analyzerService.analyzeOnly(file.getOriginalFilename(), content);
+    public CompletableFuture<AnalysisResult> analyze(@RequestParam("file") MultipartFile file,
+                                                     @RequestParam(value = "view", defaultValue = "full") String view,
+                                                     @RequestParam(value = "profile", required = false) String profile,
+                                                     @RequestParam(value = "tier", defaultValue = "auto") String tier) throws Exception {
+        boolean summary = isSummary(view);
+        AnalysisTier requested = tier(tier);
+        RuleProfile rules = ruleProfiles.get(profile);
+        SourceUploads.Upload upload = uploads.read(file);
+        // Returned as a deferred result: the servlet thread is released while the model is queried
+        return render(releasing(upload, () -> analyzerService.analyzeAsync(file.getOriginalFilename(), upload.text(), rules, requested)), summary);
+    }
+
+    // Re-review after an edit: send the versionId of an earlier result plus either the new
+    // file or a unified diff against it. Only the changed methods are re-analyzed; without
+    // a profile the base version's is used.
+    @PostMapping(value = "/analyze/incremental", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<AnalysisResult> analyzeIncremental(@RequestParam("baseVersion") String baseVersion,
+                                                                @RequestParam(value = "fileName", required = false) String fileName,
+                                                                @RequestParam(value = "file", required = false) MultipartFile file,
+                                                                @RequestParam(value = "diff", required = false) String diff,
+                                                                @RequestParam(value = "view", defaultValue = "full") String view,
+                                                                @RequestParam(value = "profile", required = false) String profile) throws Exception {
+        boolean summary = isSummary(view);
+        if ((file == null) == (diff == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Send exactly one of 'file' or 'diff'");
+        }
+        String name = file != null ? file.getOriginalFilename() : fileName;
+        if (file == null) return render(incrementalAnalyzer.analyze(name, baseVersion, null, diff, profile), summary);
+        // Unknown names are rejected before the upload takes its share of the byte budget
+        if (profile != null) ruleProfiles.get(profile);
+        SourceUploads.Upload upload = uploads.read(file);
+        return render(releasing(upload, () -> incrementalAnalyzer.analyze(name, baseVersion, upload.text(), diff, profile)), summary);
+    }
+
+    // Server-sent events: "analysis" (issues and original score), then "suggestions" and
+    // "refactor" token events as the model generates them, then the final "result"
+    @PostMapping(value = "/analyze/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter analyzeStream(@RequestParam("file") MultipartFile file,
+                                    @RequestParam(value = "view", defaultValue = "full") String view,
+                                    @RequestParam(value = "profile", required = false) String profile,
+                                    @RequestParam(value = "tier", defaultValue = "auto") String tier) throws Exception {
+        boolean summary = isSummary(view);
+        AnalysisTier requested = tier(tier);
+        RuleProfile rules = ruleProfiles.get(profile);
+        SourceUploads.Upload upload = uploads.read(file);
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        releasing(upload, () -> analyzerService.analyzeStreaming(file.getOriginalFilename(), upload.text(), rules, requested, new AnalysisListener() {
+            @Override
+            public void onAnalysis(AnalysisResult partial) {
+                sendEvent(emitter, "analysis", partial);
+            }
+
+            @Override
+            public void onToken(String stage, String token) {
+                sendEvent(emitter, stage, Map.of("token", token));
+            }
+        })).whenComplete((result, e) -> {
+            if (e != null) {
+                sendEvent(emitter, "error", Map.of("message", String.valueOf(e.getMessage())));
+                emitter.completeWithError(e);
+            } else {
+                sendEvent(emitter, "result", summary ? ReviewHistory.summarize(result) : result);
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    private static void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            // Tokens of both model calls arrive on different threads
+            synchronized (emitter) {
+                emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client went away; the analysis still completes and fills the caches
+        }
+    }
+
+    // Accepts several .java files and/or .zip/.tar/.tar.gz archives and streams one
+    // AnalysisResult per source file as NDJSON, in completion order
+    @PostMapping(value = "/analyze/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> analyzeBatch(@RequestParam("files") List<MultipartFile> files,
+                                                            @RequestParam(value = "view", defaultValue = "full") String view,
+                                                            @RequestParam(value = "profile", required = false) String profile,
+                                                            @RequestParam(value = "tier", defaultValue = "auto") String tier) {
+        boolean summary = isSummary(view);
+        AnalysisTier requested = tier(tier);
+        RuleProfile rules = ruleProfiles.get(profile);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeout.toMillis());
+        batchService.analyze(files, summary, rules, requested, emitter);
+        return ResponseEntity.ok().contentType(NDJSON).body(emitter);
+    }
+
+    // Result bodies of recent reviews, by the versionId of an AnalysisResult
+    @GetMapping("/results/{versionId}")
+    public AnalysisResult result(@PathVariable String versionId) {
+        AnalysisResult summary = history.summary(versionId);
+        if (summary == null) throw unknownResult(versionId);
+        return summary;
+    }
+
+    @GetMapping("/results/{versionId}/original")
+    public ResponseEntity<byte[]> original(@PathVariable String versionId,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return body(versionId, history.original(versionId), acceptEncoding);
+    }
+
+    @GetMapping("/results/{versionId}/refactored")
+    public ResponseEntity<byte[]> refactored(@PathVariable String versionId,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return body(versionId, history.refactored(versionId), acceptEncoding);
+    }
+
+    @GetMapping("/results/{versionId}/diff")
+    public ResponseEntity<String> diff(@PathVariable String versionId) {
+        AnalysisResult summary = history.summary(versionId);
+        if (summary == null || summary.getRefactoredDiff() == null) throw unknownResult(versionId);
+        return ResponseEntity.ok().contentType(UNIFIED_DIFF).body(summary.getRefactoredDiff());
+    }
+
+    // The stored gzip stream goes out untouched when the client accepts gzip
+    private static ResponseEntity<byte[]> body(String versionId, CompressedText text, String acceptEncoding) {
+        if (text == null) throw unknownResult(versionId);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().contentType(JAVA_SOURCE).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(text.gzipBytes());
+        }
+        return ok.body(text.text().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ResponseStatusException unknownResult(String versionId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown or expired result " + versionId);
+    }
+
+    static boolean isSummary(String view) {
+        if (view.equals("summary")) return true;
+        if (view.equals("full")) return false;
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "view must be 'full' or 'summary'");
+    }
+
+    // null for auto
+    static AnalysisTier tier(String tier) {
+        try {
+            return AnalysisTier.fromRequest(tier);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static CompletableFuture<AnalysisResult> render(CompletableFuture<AnalysisResult> result, boolean summary) {
+        return summary ? result.thenApply(ReviewHistory::summarize) : result;
+    }
+
+    // The upload's share of the in-flight byte budget is held until its analysis is done,
+    // or given back at once when the analysis cannot even be started
+    private static <T> CompletableFuture<T> releasing(SourceUploads.Upload upload, Supplier<CompletableFuture<T>> analysis) {
+        CompletableFuture<T> started;
+        try {
+            started = analysis.get();
+        } catch (RuntimeException e) {
+            upload.release();
+            throw e;
+        }
+        return started.whenComplete((r, e) -> upload.release());
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return Map.of(
+                "size", llmCache.size(),
+                "hits", llmCache.hits(),
+                "misses", llmCache.misses(),
+                "diskHits", llmCache.diskHits(),
+                "evictions", llmCache.evictions());
     }
 }
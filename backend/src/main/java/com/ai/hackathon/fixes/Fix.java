@@ -0,0 +1,18 @@
+package com.ai.hackathon.fixes;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+// An automatic source fix. It registers handlers for the node types it rewrites; the
+// FixEngine dispatches every node of a file to them in one walk, and they record their
+// changes as edits instead of touching the tree. Fixes are shared by all threads, so
+// they keep no state between files.
+public interface Fix {
+    // The id of the rule whose issues this fix addresses
+    String id();
+
+    void register(FixEngine.Handlers handlers);
+
+    // Runs once after the walk if any of this fix's handlers recorded an edit, e.g. to
+    // add the declarations its rewrites refer to. The unit is the unchanged original.
+    default void complete(CompilationUnit cu, FixEngine.Edits edits) {}
+}
@@ -0,0 +1,366 @@
+package com.ai.hackathon.fixes;
+
+import com.ai.hackathon.rules.LineIndex;
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.Position;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.comments.Comment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+// Applies a fixed set of fixes to a file in two steps:
+//  1. one walk over the document's shared tree hands each node to the handlers
+//     registered for its type, which only look and record edits (replace a node,
+//     remove a comment, add an import or a member); nothing is copied or printed when
+//     no edit was recorded
+//  2. otherwise the edits are applied to a copy of the tree (same walk order), and the
+//     new text is the original with only the edited ranges spliced in, so comments and
+//     formatting elsewhere stay as they were. Edits the splicing cannot place (e.g. one
+//     inside another) fall back to printing the whole copy.
+// The lexical-preserving printer would give the same result, but setting it up on a
+// file costs more than the old four-pass rewrite did in total.
+// Immutable apart from its counters; files are fixed concurrently on the analysis pool.
+public final class FixEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(FixEngine.class);
+
+    private static final FixEngine DEFAULT = new FixEngine(BuiltInFixes.all());
+    private static final Pattern LINE_BREAK = Pattern.compile("\r\n|\r|\n");
+
+    private final List<Fix> fixes;
+    // Node class -> handlers, in fix order
+    private final Map<Class<?>, Handler[]> dispatch;
+    private final LongAdder[] applied;
+
+    private static final class Handler {
+        final int fix;
+        final BiConsumer<Node, Edits> handle;
+
+        Handler(int fix, BiConsumer<Node, Edits> handle) {
+            this.fix = fix;
+            this.handle = handle;
+        }
+    }
+
+    // Collects the handlers of one fix at construction
+    public static final class Handlers {
+        private final int fix;
+        private final Map<Class<?>, List<Handler>> byType;
+
+        private Handlers(int fix, Map<Class<?>, List<Handler>> byType) {
+            this.fix = fix;
+            this.byType = byType;
+        }
+
+        // For nodes of exactly this class
+        @SuppressWarnings("unchecked")
+        public <N extends Node> void on(Class<N> type, BiConsumer<N, Edits> handler) {
+            byType.computeIfAbsent(type, t -> new ArrayList<>())
+                    .add(new Handler(fix, (n, edits) -> handler.accept((N) n, edits)));
+        }
+    }
+
+    private enum Kind { REPLACE, REMOVE, IMPORT, MEMBER }
+
+    private static final class Edit {
+        final Kind kind;
+        final Node target;
+        final Node node;
+
+        Edit(Kind kind, Node target, Node node) {
+            this.kind = kind;
+            this.target = target;
+            this.node = node;
+        }
+    }
+
+    // The changes recorded for one file. Targets are nodes of the original tree; the
+    // nodes passed in are new and must not be shared between edits.
+    public static final class Edits {
+        private final CompilationUnit cu;
+        private final List<Edit> edits = new ArrayList<>();
+        private final List<String> imports = new ArrayList<>();
+        private final boolean[] fired;
+        private int fix;
+
+        private Edits(CompilationUnit cu, int fixes) {
+            this.cu = cu;
+            this.fired = new boolean[fixes];
+        }
+
+        public void replace(Node target, Node replacement) {
+            add(new Edit(Kind.REPLACE, target, replacement));
+        }
+
+        public void remove(Comment comment) {
+            add(new Edit(Kind.REMOVE, comment, null));
+        }
+
+        // No edit if the file already has the import
+        public void addImport(String name) {
+            if (imports.contains(name)) return;
+            for (ImportDeclaration existing : cu.getImports()) {
+                if (!existing.isStatic() && !existing.isAsterisk() && existing.getNameAsString().equals(name)) return;
+            }
+            imports.add(name);
+            add(new Edit(Kind.IMPORT, cu, new ImportDeclaration(name, false, false)));
+        }
+
+        // As the first member of the type
+        public void addMember(TypeDeclaration<?> type, BodyDeclaration<?> member) {
+            add(new Edit(Kind.MEMBER, type, member));
+        }
+
+        private void add(Edit edit) {
+            edits.add(edit);
+            fired[fix] = true;
+        }
+    }
+
+    // A range of the original text and what goes there instead
+    private static final class Splice {
+        final int start;
+        final int end;
+        final String text;
+
+        Splice(int start, int end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+    }
+
+    public FixEngine(List<Fix> fixes) {
+        this.fixes = List.copyOf(fixes);
+        Map<Class<?>, List<Handler>> byType = new HashMap<>();
+        for (int i = 0; i < this.fixes.size(); i++) {
+            this.fixes.get(i).register(new Handlers(i, byType));
+        }
+        this.dispatch = new HashMap<>();
+        byType.forEach((type, handlers) -> dispatch.put(type, handlers.toArray(new Handler[0])));
+        this.applied = new LongAdder[this.fixes.size()];
+        for (int i = 0; i < applied.length; i++) applied[i] = new LongAdder();
+    }
+
+    public static FixEngine defaultEngine() {
+        return DEFAULT;
+    }
+
+    public List<Fix> fixes() {
+        return fixes;
+    }
+
+    // Files in which the fix at this index of fixes() fired
+    public long applied(int fix) {
+        return applied[fix].sum();
+    }
+
+    // The input document is never modified; on any failure it comes back unchanged
+    public FixResult apply(ParsedDocument doc) {
+        if (!doc.isParsed()) return new FixResult(doc, List.of());
+        try {
+            CompilationUnit original = doc.unit();
+            List<Node> nodes = nodes(original);
+            Edits edits = new Edits(original, fixes.size());
+            for (Node node : nodes) {
+                Handler[] handlers = dispatch.get(node.getClass());
+                if (handlers == null) continue;
+                for (Handler handler : handlers) {
+                    edits.fix = handler.fix;
+                    handler.handle.accept(node, edits);
+                }
+            }
+            if (edits.edits.isEmpty()) return new FixResult(doc, List.of());
+
+            List<String> firedIds = new ArrayList<>();
+            for (int i = 0; i < fixes.size(); i++) {
+                if (!edits.fired[i]) continue;
+                edits.fix = i;
+                fixes.get(i).complete(original, edits);
+                firedIds.add(fixes.get(i).id());
+                applied[i].increment();
+            }
+
+            // Splices are built before the edits move their nodes into the copy
+            List<Splice> splices = splices(doc, edits);
+            CompilationUnit cu = copy(doc, nodes, edits.edits);
+            String text = splices != null ? splice(doc.source(), splices) : cu.toString();
+            // The copy's ranges still point into the old text; chunking and issue lines
+            // on the result need the new text's, so it is parsed again
+            ParsedDocument fixed = ParsedDocument.parse(text);
+            return new FixResult(fixed.isParsed() ? fixed : ParsedDocument.of(text, cu), List.copyOf(firedIds));
+        } catch (RuntimeException e) {
+            log.warn("Error during AST refactoring", e);
+            return new FixResult(doc, List.of());
+        }
+    }
+
+    // The edits applied to a copy of the unit, found by their walk index
+    private static CompilationUnit copy(ParsedDocument doc, List<Node> nodes, List<Edit> edits) {
+        Map<Node, Integer> index = new IdentityHashMap<>();
+        for (Edit edit : edits) index.put(edit.target, -1);
+        for (int i = 0; i < nodes.size(); i++) {
+            if (index.containsKey(nodes.get(i))) index.put(nodes.get(i), i);
+        }
+        CompilationUnit cu = doc.copyOfUnit();
+        List<Node> copies = nodes(cu);
+        if (copies.size() != nodes.size()) {
+            throw new IllegalStateException("copied tree differs from the original");
+        }
+        for (Edit edit : edits) {
+            int i = index.get(edit.target);
+            if (i < 0) throw new IllegalStateException("edit target is not part of the file");
+            Node target = copies.get(i);
+            switch (edit.kind) {
+                case REPLACE -> {
+                    if (!target.replace(edit.node)) throw new IllegalStateException("cannot replace " + target);
+                }
+                case REMOVE -> target.remove();
+                case IMPORT -> ((CompilationUnit) target).addImport((ImportDeclaration) edit.node);
+                case MEMBER -> ((TypeDeclaration<?>) target).getMembers().add(0, (BodyDeclaration<?>) edit.node);
+            }
+        }
+        return cu;
+    }
+
+    // The text changes for the edits, or null when one cannot be placed in the original
+    private static List<Splice> splices(ParsedDocument doc, Edits edits) {
+        String source = doc.source();
+        LineIndex lines = doc.lines();
+        // Inserted and printed text ends its lines the way the file does
+        String eol = lineSeparator(source);
+        List<Splice> splices = new ArrayList<>();
+        StringBuilder imports = new StringBuilder();
+        for (Edit edit : edits.edits) {
+            switch (edit.kind) {
+                case REPLACE -> {
+                    if (edit.target.getRange().isEmpty()) return null;
+                    int start = offset(lines, edit.target.getRange().get().begin);
+                    int end = offset(lines, edit.target.getRange().get().end) + 1;
+                    splices.add(new Splice(start, end, print(edit.node, eol)));
+                }
+                case REMOVE -> {
+                    if (edit.target.getRange().isEmpty()) return null;
+                    int start = offset(lines, edit.target.getRange().get().begin);
+                    int end = offset(lines, edit.target.getRange().get().end) + 1;
+                    int lineStart = lines.startOf(lines.lineOf(start));
+                    int lineEnd = end;
+                    while (lineEnd < source.length() && isBlank(source.charAt(lineEnd))) lineEnd++;
+                    while (start > lineStart && isBlank(source.charAt(start - 1))) start--;
+                    if (start == lineStart && lineEnd == source.length()) {
+                        end = lineEnd;
+                    } else if (start == lineStart && isLineBreak(source.charAt(lineEnd))) {
+                        // Nothing else on the line: the line goes too
+                        end = lines.startOf(lines.lineOf(lineEnd) + 1);
+                    }
+                    splices.add(new Splice(start, end, ""));
+                }
+                case IMPORT -> {
+                    if (imports.length() > 0) imports.append(eol);
+                    imports.append("import ").append(((ImportDeclaration) edit.node).getNameAsString()).append(';');
+                }
+                case MEMBER -> {
+                    TypeDeclaration<?> type = (TypeDeclaration<?>) edit.target;
+                    if (type.getMembers().isEmpty()) return null;
+                    BodyDeclaration<?> first = type.getMembers().get(0);
+                    if (first.getRange().isEmpty()) return null;
+                    Position begin = first.getRange().get().begin;
+                    // Above the member's comment, unless that trails it on the same line
+                    Optional<Position> comment = first.getComment().flatMap(Node::getBegin);
+                    if (comment.isPresent() && comment.get().isBefore(begin)) begin = comment.get();
+                    int at = lines.startOf(begin.line);
+                    String indent = source.substring(at, offset(lines, begin));
+                    if (!indent.isBlank()) return null;
+                    splices.add(new Splice(at, at, indent + print(edit.node, eol) + eol + eol));
+                }
+            }
+        }
+        if (imports.length() > 0) {
+            CompilationUnit cu = edits.cu;
+            if (cu.getImports().isNonEmpty()) {
+                Node last = cu.getImports().getLast().get();
+                if (last.getRange().isEmpty()) return null;
+                int at = offset(lines, last.getRange().get().end) + 1;
+                splices.add(new Splice(at, at, eol + imports));
+            } else if (cu.getPackageDeclaration().isPresent()) {
+                Node pkg = cu.getPackageDeclaration().get();
+                if (pkg.getRange().isEmpty()) return null;
+                int at = offset(lines, pkg.getRange().get().end) + 1;
+                splices.add(new Splice(at, at, eol + eol + imports));
+            } else {
+                splices.add(new Splice(0, 0, imports + eol + eol));
+            }
+        }
+        // An insertion goes before a removal starting at the same place
+        splices.sort(Comparator.<Splice>comparingInt(s -> s.start).thenComparingInt(s -> s.end));
+        for (int i = 1; i < splices.size(); i++) {
+            if (splices.get(i).start < splices.get(i - 1).end) return null;
+        }
+        return splices;
+    }
+
+    private static String splice(String source, List<Splice> splices) {
+        StringBuilder out = new StringBuilder(source.length() + 256);
+        int at = 0;
+        for (Splice s : splices) {
+            out.append(source, at, s.start).append(s.text);
+            at = s.end;
+        }
+        return out.append(source, at, source.length()).toString();
+    }
+
+    // Parser positions count columns from 1 and tabs as one column
+    private static int offset(LineIndex lines, Position position) {
+        return lines.startOf(position.line) + position.column - 1;
+    }
+
+    // The file's first line terminator; \n for a single line
+    private static String lineSeparator(String source) {
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\n') return "\n";
+            if (c == '\r') return i + 1 < source.length() && source.charAt(i + 1) == '\n' ? "\r\n" : "\r";
+        }
+        return "\n";
+    }
+
+    // The printer ends lines with the platform's separator
+    private static String print(Node node, String eol) {
+        return LINE_BREAK.matcher(node.toString()).replaceAll(eol);
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    // The terminators LineIndex counts
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r' || c == '\u000B' || c == '\u000C' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    // Every node in walk order, with the comments the parser attached to nodes without
+    // making them children (the walk alone would miss those)
+    private static List<Node> nodes(CompilationUnit cu) {
+        List<Node> nodes = new ArrayList<>();
+        cu.walk(node -> {
+            nodes.add(node);
+            node.getComment().filter(c -> c.getParentNode().isEmpty()).ifPresent(nodes::add);
+        });
+        return nodes;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ai.hackathon.fixes;
+
+import com.ai.hackathon.util.ParsedDocument;
+
+import java.util.List;
+
+// The fixed document and the ids of the fixes that changed it. With no fix fired the
+// document is the input itself, so its issues and score still hold.
+public final class FixResult {
+
+    private final ParsedDocument document;
+    private final List<String> fired;
+
+    FixResult(ParsedDocument document, List<String> fired) {
+        this.document = document;
+        this.fired = fired;
+    }
+
+    public ParsedDocument document() { return document; }
+    public List<String> fired() { return fired; }
+    public boolean changed() { return !fired.isEmpty(); }
+}
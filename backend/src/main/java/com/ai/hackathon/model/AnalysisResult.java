@@ -1,5 +1,7 @@
 package com.ai.hackathon.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class AnalysisResult {
@@ -10,6 +12,21 @@ public class AnalysisResult {
     private List<String> aiSuggestions;
     private String refactoredSource;
     private int refactoredScore;
+    private String versionId;
+    private List<String> reanalyzedMembers;
+    // Ids of the automatic fixes in refactoredSource, when it is their output rather than
+    // the model's
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> appliedFixes;
+    // Name of the rule profile the file was reviewed with
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String profile;
+    // Which stages ran; a heuristics review never called the model
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private AnalysisTier tier;
+    // Only in summary views (view=summary), which leave out both sources
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String refactoredDiff;
 
     public String getFileName() {
         return fileName;
@@ -66,4 +83,52 @@ public class AnalysisResult {
     public void setRefactoredScore(int refactoredScore) {
         this.refactoredScore = refactoredScore;
     }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    public void setVersionId(String versionId) {
+        this.versionId = versionId;
+    }
+
+    public List<String> getReanalyzedMembers() {
+        return reanalyzedMembers;
+    }
+
+    public void setReanalyzedMembers(List<String> reanalyzedMembers) {
+        this.reanalyzedMembers = reanalyzedMembers;
+    }
+
+    public List<String> getAppliedFixes() {
+        return appliedFixes;
+    }
+
+    public void setAppliedFixes(List<String> appliedFixes) {
+        this.appliedFixes = appliedFixes;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    public AnalysisTier getTier() {
+        return tier;
+    }
+
+    public void setTier(AnalysisTier tier) {
+        this.tier = tier;
+    }
+
+    public String getRefactoredDiff() {
+        return refactoredDiff;
+    }
+
+    public void setRefactoredDiff(String refactoredDiff) {
+        this.refactoredDiff = refactoredDiff;
+    }
 }
@@ -0,0 +1,28 @@
+package com.ai.hackathon.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+// How far a review went: the local rules and automatic fixes only, plus the model's
+// suggestions, or plus the model's refactor of the file. Serialized lowercase, e.g.
+// "suggestions".
+public enum AnalysisTier {
+    HEURISTICS,
+    SUGGESTIONS,
+    FULL;
+
+    @JsonValue
+    public String id() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // null for "auto", which leaves the choice to the issues found
+    public static AnalysisTier fromRequest(String tier) {
+        if (tier.equals("auto")) return null;
+        for (AnalysisTier t : values()) {
+            if (t.id().equals(tier)) return t;
+        }
+        throw new IllegalArgumentException("tier must be 'auto', 'heuristics', 'suggestions' or 'full'");
+    }
+}
@@ -1,15 +1,67 @@
 package com.ai.hackathon.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class Issue {
     private int line;
     private String message;
+    private RuleId ruleId = RuleId.CUSTOM;
+    private Severity severity = RuleId.CUSTOM.severity();
+    // Default penalty of this issue; scoring profiles may weigh built-in rules differently
+    private int weight = RuleId.CUSTOM.weight();
+
+    // 1-based span of the finding; 0 when only the line is known
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int column;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int endLine;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int endColumn;
 
     public Issue() {}
 
     public Issue(int line, String message) { this.line = line; this.message = message; }
 
+    public Issue(RuleId ruleId, int line, String message) {
+        this.line = line;
+        this.message = message;
+        this.ruleId = ruleId;
+        this.severity = ruleId.severity();
+        this.weight = ruleId.weight();
+    }
+
+    // The same finding moved to another line, with its span shifted along
+    public Issue atLine(int newLine) {
+        Issue moved = new Issue(ruleId, newLine, message);
+        moved.severity = severity;
+        moved.weight = weight;
+        moved.column = column;
+        moved.endLine = endLine == 0 ? 0 : endLine + (newLine - line);
+        moved.endColumn = endColumn;
+        return moved;
+    }
+
+    public Issue span(int column, int endLine, int endColumn) {
+        this.column = column;
+        this.endLine = endLine;
+        this.endColumn = endColumn;
+        return this;
+    }
+
     public int getLine() { return line; }
     public void setLine(int line) { this.line = line; }
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
+    public RuleId getRuleId() { return ruleId; }
+    public void setRuleId(RuleId ruleId) { this.ruleId = ruleId; }
+    public Severity getSeverity() { return severity; }
+    public void setSeverity(Severity severity) { this.severity = severity; }
+    public int getWeight() { return weight; }
+    public void setWeight(int weight) { this.weight = weight; }
+    public int getColumn() { return column; }
+    public void setColumn(int column) { this.column = column; }
+    public int getEndLine() { return endLine; }
+    public void setEndLine(int endLine) { this.endLine = endLine; }
+    public int getEndColumn() { return endColumn; }
+    public void setEndColumn(int endColumn) { this.endColumn = endColumn; }
 }
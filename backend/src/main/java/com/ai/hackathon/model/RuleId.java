@@ -0,0 +1,53 @@
+package com.ai.hackathon.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+// Stable identity of every issue kind, with its default severity and penalty.
+// Serialized as the rule's id, e.g. "long-method".
+public enum RuleId {
+    SYSTEM_OUT("system-out", Severity.MINOR, 5),
+    TODO("todo", Severity.MINOR, 8),
+    HARDCODED_CREDENTIAL("hardcoded-credential", Severity.CRITICAL, 30),
+    BROAD_CATCH("broad-catch", Severity.MAJOR, 10),
+    SQL_CONCATENATION("sql-concatenation", Severity.CRITICAL, 25),
+    LONG_METHOD("long-method", Severity.MAJOR, 15),
+    COMPLEX_METHOD("complex-method", Severity.MAJOR, 10),
+    COGNITIVE_COMPLEXITY("cognitive-complexity", Severity.MAJOR, 10),
+    DEEP_NESTING("deep-nesting", Severity.MINOR, 5),
+    TOO_MANY_PARAMETERS("too-many-parameters", Severity.MINOR, 5),
+    // cross-file rules, backed by the project index
+    DUPLICATE_CODE("duplicate-code", Severity.MAJOR, 10),
+    NEAR_DUPLICATE("near-duplicate", Severity.MAJOR, 8),
+    UNUSED_PUBLIC_METHOD("unused-public-method", Severity.MINOR, 3),
+    INCONSISTENT_LOGGING("inconsistent-logging", Severity.MINOR, 3),
+    // the file could not be analyzed at all
+    ERROR("error", Severity.CRITICAL, 5),
+    // rules without an id of their own; their issues carry their own weight
+    CUSTOM("custom", Severity.MINOR, 5);
+
+    private static final RuleId[] VALUES = values();
+
+    private final String id;
+    private final Severity severity;
+    private final int weight;
+
+    RuleId(String id, Severity severity, int weight) {
+        this.id = id;
+        this.severity = severity;
+        this.weight = weight;
+    }
+
+    @JsonValue
+    public String id() { return id; }
+    public Severity severity() { return severity; }
+    public int weight() { return weight; }
+
+    @JsonCreator
+    public static RuleId fromId(String id) {
+        for (RuleId r : VALUES) {
+            if (r.id.equals(id)) return r;
+        }
+        return CUSTOM;
+    }
+}
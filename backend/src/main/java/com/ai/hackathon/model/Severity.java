@@ -0,0 +1,5 @@
+package com.ai.hackathon.model;
+
+public enum Severity {
+    INFO, MINOR, MAJOR, CRITICAL
+}
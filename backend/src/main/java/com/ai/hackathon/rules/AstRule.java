@@ -0,0 +1,18 @@
+package com.ai.hackathon.rules;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+// A rule fed by the engine's shared visitor; override only the node types you need.
+public interface AstRule extends Rule {
+
+    default void visit(MethodCallExpr n, RuleContext ctx) {}
+
+    default void visit(MethodDeclaration n, RuleContext ctx) {}
+
+    // Rules that answer true get the MethodMetrics of every method; the engine measures
+    // each method once for all of them
+    default boolean usesMetrics() { return false; }
+
+    default void visit(MethodMetrics metrics, RuleContext ctx) {}
+}
@@ -0,0 +1,103 @@
+package com.ai.hackathon.rules;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// The heuristics shipped with the reviewer, in the order their issues are reported.
+public final class BuiltInRules {
+
+    private BuiltInRules() {}
+
+    public static List<Rule> all() {
+        return all(Map.of());
+    }
+
+    // With the given method metric limits; metrics not in the map keep their default
+    public static List<Rule> all(Map<MethodMetrics.Metric, Integer> limits) {
+        List<Rule> rules = new ArrayList<>(List.of(
+                new SystemOutRule(),
+                new TextRule("todo", "TODO|FIXME", 0,
+                        "Found TODO/FIXME comment — address before production."),
+                new TextRule("hardcoded-credential",
+                        "(?i)(password\\s*=\\s*\".+?\"|secret\\s*=\\s*\".+?\"|API_KEY\\s*=\\s*\".+?\")", 0,
+                        "Possible hard-coded credential pattern — move secrets to config/secrets manager."),
+                new TextRule("broad-catch", "catch\\s*\\(\\s*Exception\\s+\\w+\\s*\\)", Pattern.CASE_INSENSITIVE,
+                        "Broad catch of Exception — catch specific exceptions and avoid swallowing errors."),
+                new TextRule("sql-concatenation", "execute(Query|Update)\\s*\\(.*\\+.*\\)", Pattern.CASE_INSENSITIVE,
+                        "Possible SQL string concatenation — use PreparedStatement to prevent SQL injection.")
+        ));
+        for (MethodMetrics.Metric metric : MethodMetrics.Metric.values()) {
+            rules.add(new MetricRule(metric, limits.getOrDefault(metric, metric.defaultLimit)));
+        }
+        return rules;
+    }
+
+    // Detect System.out.print* usages
+    static final class SystemOutRule implements AstRule {
+        @Override
+        public String id() { return "system-out"; }
+
+        @Override
+        public void visit(MethodCallExpr mc, RuleContext ctx) {
+            if (mc.getScope().isPresent()) {
+                String scope = mc.getScope().get().toString();
+                String name = mc.getNameAsString();
+                if (("System.out".equals(scope) || scope.endsWith("System.out")) &&
+                        ("println".equals(name) || "print".equals(name))) {
+                    int line = mc.getBegin().map(p -> p.line).orElse(-1);
+                    ctx.report(mc, line + 1, "Use of System.out.println — prefer a logging framework (SLF4J/Logback).");
+                }
+            }
+        }
+    }
+
+    // A method metric over its limit; the span covers the method's declaration
+    static final class MetricRule implements AstRule {
+        private final MethodMetrics.Metric metric;
+        private final int limit;
+
+        MetricRule(MethodMetrics.Metric metric, int limit) {
+            this.metric = metric;
+            this.limit = limit;
+        }
+
+        @Override
+        public String id() { return metric.rule.id(); }
+
+        @Override
+        public boolean usesMetrics() { return true; }
+
+        @Override
+        public void visit(MethodMetrics metrics, RuleContext ctx) {
+            int value = metrics.get(metric);
+            if (value <= limit) return;
+            MethodDeclaration md = metrics.node();
+            int line = md.getBegin().map(p -> p.line).orElse(-1);
+            ctx.report(md, line + 1, message(md.getNameAsString(), value));
+        }
+
+        private String message(String name, int value) {
+            switch (metric) {
+                case LINES:
+                    return "Long method '" + name + "' (" + value + " lines) — consider refactoring.";
+                case CYCLOMATIC:
+                    return "Method '" + name + "' has cyclomatic complexity " + value + " (limit " + limit
+                            + ") — split it into smaller methods.";
+                case COGNITIVE:
+                    return "Method '" + name + "' has cognitive complexity " + value + " (limit " + limit
+                            + ") — simplify its control flow.";
+                case NESTING:
+                    return "Method '" + name + "' nests control flow " + value + " levels deep (limit " + limit
+                            + ") — use early returns or extract methods.";
+                default:
+                    return "Method '" + name + "' takes " + value + " parameters (limit " + limit
+                            + ") — group them into a parameter object.";
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.util.LshIndex;
+import com.ai.hackathon.util.MinHash;
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rules that need the rest of the project, answered from the ProjectIndex: method bodies
+// duplicated across files, bodies that are copies with small edits (renamed variables,
+// changed literals, a statement added), public methods no indexed file calls by name,
+// and files logging through a different framework than most of the project.
+final class CrossFileRules {
+
+    private CrossFileRules() {}
+
+    static List<Issue> check(FileSymbols file, ProjectIndex index, int minFilesForUnused, double nearDuplicateSimilarity) {
+        List<Issue> issues = new ArrayList<>();
+        boolean enoughFiles = index.otherFiles(file) + 1 >= minFilesForUnused;
+        // LSH over this file's own comparable methods, ids index into the list
+        List<FileSymbols.Method> comparable = file.methods.stream().filter(m -> m.signature != null).toList();
+        LshIndex local = new LshIndex();
+        for (FileSymbols.Method m : comparable) local.add(m.signature);
+        for (FileSymbols.Method m : file.methods) {
+            if (m.fingerprint != 0) {
+                // an exact copy is reported once, as duplicate-code
+                if (!duplicateCode(file, index, m, issues)) nearDuplicate(file, index, comparable, local, m, nearDuplicateSimilarity, issues);
+            }
+            if (enoughFiles && m.mayBeUnused) unusedPublicMethod(file, index, m, issues);
+        }
+        inconsistentLogging(file, index, issues);
+        return issues;
+    }
+
+    private static boolean duplicateCode(FileSymbols file, ProjectIndex index, FileSymbols.Method m, List<Issue> issues) {
+        ProjectIndex.Clone partner;
+        if (index.otherBodies(file, m.fingerprint) > 0 && (partner = index.sameBody(file, m.fingerprint, m.signature)) != null) {
+            issues.add(at(RuleId.DUPLICATE_CODE, m.node, m.line, "Method '" + m.name + "' has the same body as '"
+                    + partner.method + "' in " + partner.fileName + ":" + partner.line + " — extract the shared code."));
+        } else if (FileSymbols.count(file.fingerprints, m.fingerprint) > 1) {
+            issues.add(at(RuleId.DUPLICATE_CODE, m.node, m.line, "Method '" + m.name
+                    + "' has the same body as another method in this file — extract the shared code."));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    // The most similar other body, in this file or elsewhere, that is not an exact copy
+    private static void nearDuplicate(FileSymbols file, ProjectIndex index, List<FileSymbols.Method> comparable,
+                                      LshIndex local, FileSymbols.Method m, double minSimilarity, List<Issue> issues) {
+        ProjectIndex.Clone best = index.nearestClone(file, m.fingerprint, m.signature, minSimilarity);
+        FileSymbols.Method sibling = null;
+        double siblingSimilarity = 0;
+        for (int id : local.candidates(m.signature, ProjectIndex.MAX_CANDIDATES)) {
+            FileSymbols.Method other = comparable.get(id);
+            if (other == m || other.fingerprint == m.fingerprint) continue;
+            double similarity = MinHash.similarity(m.signature, other.signature);
+            if (similarity >= minSimilarity && similarity > siblingSimilarity) {
+                sibling = other;
+                siblingSimilarity = similarity;
+            }
+        }
+        String percent;
+        String where;
+        if (sibling != null && (best == null || siblingSimilarity >= best.similarity)) {
+            percent = Math.round(siblingSimilarity * 100) + "%";
+            where = "'" + sibling.name + "' at line " + sibling.line + " of this file";
+        } else if (best != null) {
+            percent = Math.round(best.similarity * 100) + "%";
+            where = "'" + best.method + "' in " + best.fileName + ":" + best.line;
+        } else {
+            return;
+        }
+        issues.add(at(RuleId.NEAR_DUPLICATE, m.node, m.line, "Method '" + m.name + "' is a near-duplicate (" + percent
+                + " similar) of " + where + " — extract the shared code."));
+    }
+
+    private static void unusedPublicMethod(FileSymbols file, ProjectIndex index, FileSymbols.Method m, List<Issue> issues) {
+        long byReference = FileSymbols.referenceKey(m.name);
+        int callers = index.otherFilesCalling(file, m.callKey) + FileSymbols.count(file.calls, m.callKey)
+                + index.otherFilesCalling(file, byReference) + FileSymbols.count(file.calls, byReference);
+        if (callers == 0) {
+            issues.add(at(RuleId.UNUSED_PUBLIC_METHOD, m.node.getName(), m.line, "Public method '" + m.name
+                    + "' is not called from any of the " + (index.otherFiles(file) + 1)
+                    + " indexed files — reduce its visibility or remove it."));
+        }
+    }
+
+    private static void inconsistentLogging(FileSymbols file, ProjectIndex index, List<Issue> issues) {
+        if (file.logger == FileSymbols.Logger.NONE) return;
+        FileSymbols.Logger dominant = null;
+        int dominantFiles = 0;
+        for (FileSymbols.Logger logger : FileSymbols.Logger.values()) {
+            if (logger == FileSymbols.Logger.NONE) continue;
+            int n = index.otherFilesLogging(file, logger);
+            if (n > dominantFiles) {
+                dominant = logger;
+                dominantFiles = n;
+            }
+        }
+        int sameAsFile = index.otherFilesLogging(file, file.logger) + 1;
+        if (dominant != null && dominant != file.logger && dominantFiles >= 2 && dominantFiles > sameAsFile) {
+            String message = "Logs through " + file.logger.label + " while " + dominantFiles + " other files use "
+                    + dominant.label + " — use one logging framework across the project.";
+            issues.add(file.loggerImport != null
+                    ? at(RuleId.INCONSISTENT_LOGGING, file.loggerImport, file.loggerImport.getBegin().map(p -> p.line).orElse(1), message)
+                    : new Issue(RuleId.INCONSISTENT_LOGGING, 1, message));
+        }
+    }
+
+    private static Issue at(RuleId rule, Node node, int line, String message) {
+        Issue issue = new Issue(rule, line, message);
+        node.getRange().ifPresent(r -> issue.span(r.begin.column, r.end.line, r.end.column));
+        return issue;
+    }
+}
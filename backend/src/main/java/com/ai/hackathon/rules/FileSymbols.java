@@ -0,0 +1,273 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.util.MinHash;
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.expr.MarkerAnnotationExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.MethodReferenceExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// What the ProjectIndex keeps of one file: its logging framework, the 64-bit keys of
+// the method names it calls and the token fingerprints of its method bodies, as sorted
+// primitive arrays, plus a MinHash signature per method body for near-duplicate lookup.
+// Extraction also records the file's own method nodes and logger import for the
+// cross-file rules; those are not kept in the index.
+public final class FileSymbols {
+
+    public enum Logger {
+        NONE("no logger"), SLF4J("SLF4J"), JUL("java.util.logging"), LOG4J("Log4j"), COMMONS("Commons Logging");
+
+        final String label;
+
+        Logger(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Tokens per shingle of a normalized body
+    static final int SHINGLE_TOKENS = 5;
+    private static final long ID_TOKEN = hash(FNV_OFFSET, "$id");
+    private static final long LITERAL_TOKEN = hash(FNV_OFFSET, "$lit");
+
+    private static final Pattern ACCESSOR = Pattern.compile("(get|set|is)[A-Z].*");
+
+    // Entry points and methods called by frameworks or the JDK rather than by name
+    private static final Set<String> IMPLICITLY_USED = Set.of(
+            "main", "toString", "equals", "hashCode", "compareTo", "close", "run", "call", "accept", "apply");
+
+    // A method of this file as seen by the cross-file rules
+    public static final class Method {
+        final MethodDeclaration node;
+        final String name;
+        final int line;
+        final long callKey;
+        final long fingerprint; // 0 when the body is too short to compare
+        final int[] signature;  // null when the body is too short to compare
+        final boolean mayBeUnused;
+
+        Method(MethodDeclaration node, long callKey, Body body, boolean mayBeUnused) {
+            this.node = node;
+            this.name = node.getNameAsString();
+            this.line = node.getBegin().map(p -> p.line).orElse(0);
+            this.callKey = callKey;
+            this.fingerprint = body == null ? 0 : body.fingerprint;
+            this.signature = body == null ? null : body.signature;
+            this.mayBeUnused = mayBeUnused;
+        }
+    }
+
+    // Methods with a comparable body, as parallel arrays
+    static final class Clones {
+        static final Clones NONE = new Clones(new String[0], new int[0], new long[0], new int[0][]);
+
+        final String[] names;
+        final int[] lines;
+        final long[] fingerprints;
+        final int[][] signatures;
+
+        Clones(String[] names, int[] lines, long[] fingerprints, int[][] signatures) {
+            this.names = names;
+            this.lines = lines;
+            this.fingerprints = fingerprints;
+            this.signatures = signatures;
+        }
+
+        int size() {
+            return names.length;
+        }
+    }
+
+    private static final class Body {
+        final long fingerprint;
+        final int[] signature;
+
+        Body(long fingerprint, int[] signature) {
+            this.fingerprint = fingerprint;
+            this.signature = signature;
+        }
+    }
+
+    final String fileName;
+    final Logger logger;
+    final long[] calls;        // sorted, unique
+    final long[] fingerprints; // sorted, repeats kept
+    final Clones clones;
+
+    // Only for freshly extracted files
+    final List<Method> methods;
+    final ImportDeclaration loggerImport;
+
+    FileSymbols(String fileName, Logger logger, long[] calls, long[] fingerprints, Clones clones) {
+        this(fileName, logger, calls, fingerprints, clones, List.of(), null);
+    }
+
+    private FileSymbols(String fileName, Logger logger, long[] calls, long[] fingerprints, Clones clones,
+                        List<Method> methods, ImportDeclaration loggerImport) {
+        this.fileName = fileName;
+        this.logger = logger;
+        this.calls = calls;
+        this.fingerprints = fingerprints;
+        this.clones = clones;
+        this.methods = methods;
+        this.loggerImport = loggerImport;
+    }
+
+    // One walk over the tree; bodies shorter than minTokens get no fingerprint
+    public static FileSymbols extract(String fileName, ParsedDocument doc, int minTokens) {
+        Collector collector = new Collector(minTokens);
+        doc.unit().accept(collector, null);
+        long[] calls = collector.calls.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        long[] fingerprints = collector.methods.stream().mapToLong(m -> m.fingerprint).filter(f -> f != 0).sorted().toArray();
+        List<Method> comparable = collector.methods.stream().filter(m -> m.signature != null).toList();
+        Clones clones = new Clones(
+                comparable.stream().map(m -> m.name).toArray(String[]::new),
+                comparable.stream().mapToInt(m -> m.line).toArray(),
+                comparable.stream().mapToLong(m -> m.fingerprint).toArray(),
+                comparable.stream().map(m -> m.signature).toArray(int[][]::new));
+        return new FileSymbols(fileName, collector.logger, calls, fingerprints, clones, collector.methods, collector.loggerImport);
+    }
+
+    static long callKey(String name, int arity) {
+        return hash(FNV_OFFSET, name + "/" + arity);
+    }
+
+    // Method references do not show an arity
+    static long referenceKey(String name) {
+        return hash(FNV_OFFSET, name + "/*");
+    }
+
+    static int count(long[] sorted, long key) {
+        int i = Arrays.binarySearch(sorted, key);
+        if (i < 0) return 0;
+        int from = i;
+        int to = i;
+        while (from > 0 && sorted[from - 1] == key) from--;
+        while (to + 1 < sorted.length && sorted[to + 1] == key) to++;
+        return to - from + 1;
+    }
+
+    private static long hash(long h, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    // One pass over the body tokens without whitespace and comments, so reformatting
+    // changes neither: the fingerprint hashes the exact tokens, the MinHash signature
+    // covers shingles of SHINGLE_TOKENS tokens with identifiers and literals normalized
+    // away, so renamed copies still match. null for bodies shorter than minTokens.
+    private static Body body(BlockStmt body, int minTokens) {
+        if (body.getTokenRange().isEmpty()) return null;
+        long h = FNV_OFFSET;
+        long[] normalized = new long[64];
+        int tokens = 0;
+        for (JavaToken token : body.getTokenRange().get()) {
+            JavaToken.Category category = token.getCategory();
+            if (category.isWhitespaceOrComment()) continue;
+            h = hash(h, token.getText());
+            h = (h ^ 0x1f) * FNV_PRIME;
+            if (tokens == normalized.length) normalized = Arrays.copyOf(normalized, tokens * 2);
+            normalized[tokens++] = category.isIdentifier() ? ID_TOKEN
+                    : category.isLiteral() ? LITERAL_TOKEN
+                    : hash(FNV_OFFSET, token.getText());
+        }
+        if (tokens < Math.max(minTokens, SHINGLE_TOKENS) || h == 0) return null;
+        return new Body(h, MinHash.signature(shingles(normalized, tokens)));
+    }
+
+    private static long[] shingles(long[] tokens, int count) {
+        long[] shingles = new long[count - SHINGLE_TOKENS + 1];
+        for (int i = 0; i < shingles.length; i++) {
+            long s = tokens[i];
+            for (int j = 1; j < SHINGLE_TOKENS; j++) s = s * FNV_PRIME + tokens[i + j];
+            shingles[i] = s;
+        }
+        return shingles;
+    }
+
+    private static Logger loggerOf(String importName) {
+        if (importName.startsWith("org.slf4j") || importName.equals("lombok.extern.slf4j.Slf4j")) return Logger.SLF4J;
+        if (importName.startsWith("java.util.logging")) return Logger.JUL;
+        if (importName.startsWith("org.apache.logging.log4j") || importName.startsWith("org.apache.log4j")) return Logger.LOG4J;
+        if (importName.startsWith("org.apache.commons.logging")) return Logger.COMMONS;
+        return Logger.NONE;
+    }
+
+    private static final class Collector extends VoidVisitorAdapter<Void> {
+        final int minTokens;
+        final List<Long> calls = new ArrayList<>();
+        final List<Method> methods = new ArrayList<>();
+        Logger logger = Logger.NONE;
+        ImportDeclaration loggerImport;
+
+        Collector(int minTokens) {
+            this.minTokens = minTokens;
+        }
+
+        @Override
+        public void visit(ImportDeclaration n, Void arg) {
+            Logger kind = loggerOf(n.getNameAsString());
+            if (kind != Logger.NONE && loggerImport == null) {
+                logger = kind;
+                loggerImport = n;
+            }
+        }
+
+        @Override
+        public void visit(MethodCallExpr n, Void arg) {
+            calls.add(callKey(n.getNameAsString(), n.getArguments().size()));
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(MethodReferenceExpr n, Void arg) {
+            calls.add(referenceKey(n.getIdentifier()));
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(MarkerAnnotationExpr n, Void arg) {
+            // Lombok's @Slf4j without an import of its own (fully qualified or star import)
+            if (logger == Logger.NONE && n.getNameAsString().endsWith("Slf4j")) logger = Logger.SLF4J;
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(MethodDeclaration n, Void arg) {
+            Body body = n.getBody().map(b -> body(b, minTokens)).orElse(null);
+            methods.add(new Method(n, callKey(n.getNameAsString(), n.getParameters().size()), body, mayBeUnused(n)));
+            super.visit(n, arg);
+        }
+
+        // Public methods of concrete classes that nothing outside the JDK or a framework
+        // could be calling implicitly
+        private static boolean mayBeUnused(MethodDeclaration n) {
+            if (!n.hasModifier(Modifier.Keyword.PUBLIC) || n.isAbstract() || !n.getAnnotations().isEmpty()) return false;
+            // Calls to varargs methods have any number of arguments
+            if (n.getParameters().stream().anyMatch(Parameter::isVarArgs)) return false;
+            String name = n.getNameAsString();
+            if (IMPLICITLY_USED.contains(name) || ACCESSOR.matcher(name).matches()) return false;
+            Node parent = n.getParentNode().orElse(null);
+            return parent instanceof ClassOrInterfaceDeclaration && !((ClassOrInterfaceDeclaration) parent).isInterface();
+        }
+    }
+}
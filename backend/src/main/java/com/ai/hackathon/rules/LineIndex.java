@@ -0,0 +1,58 @@
+package com.ai.hackathon.rules;
+
+import java.util.Arrays;
+
+// Offsets of every line start in a source text, built once per file so that
+// offset -> line lookups are a binary search instead of a rescan of the prefix.
+public final class LineIndex {
+
+    private final int[] lineStarts;
+    private final int lineCount;
+    private final int length;
+
+    private LineIndex(int[] lineStarts, int lineCount, int length) {
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+        this.length = length;
+    }
+
+    public static LineIndex of(CharSequence text) {
+        int[] starts = new int[64];
+        int count = 1;
+        int len = text.length();
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            // Same terminators as \R: \r\n, \n, \r, \u000B, \u000C, \u0085, \u2028, \u2029
+            if (c == '\r') {
+                if (i + 1 < len && text.charAt(i + 1) == '\n') i++;
+            } else if (c != '\n' && c != '\u000B' && c != '\u000C' && c != '\u0085' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            if (count == starts.length) starts = Arrays.copyOf(starts, count * 2);
+            starts[count++] = i + 1;
+        }
+        return new LineIndex(starts, count, len);
+    }
+
+    // 1-based line containing the given character offset
+    public int lineOf(int offset) {
+        int i = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    // 1-based column of the given character offset
+    public int columnOf(int offset) {
+        return offset - lineStarts[lineOf(offset) - 1] + 1;
+    }
+
+    // Offset of the first character of a 1-based line
+    public int startOf(int line) {
+        if (line <= 1) return 0;
+        if (line > lineCount) return length;
+        return lineStarts[line - 1];
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+}
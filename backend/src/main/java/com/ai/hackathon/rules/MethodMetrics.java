@@ -0,0 +1,257 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.RuleId;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.SwitchExpr;
+import com.github.javaparser.ast.stmt.BreakStmt;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.ContinueStmt;
+import com.github.javaparser.ast.stmt.DoStmt;
+import com.github.javaparser.ast.stmt.ForEachStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.LocalClassDeclarationStmt;
+import com.github.javaparser.ast.stmt.LocalRecordDeclarationStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.ast.stmt.SwitchEntry;
+import com.github.javaparser.ast.stmt.SwitchStmt;
+import com.github.javaparser.ast.stmt.WhileStmt;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+// Size and complexity of one method, from one walk over its body:
+//  - lines: source lines spanned by the declaration, from its begin and end positions
+//  - cyclomatic: 1 + branches (if, loops, non-default case labels, catch, ?:, && and ||)
+//  - cognitive: as defined by SonarSource; structures cost 1 plus their nesting, else
+//    and else-if cost 1, each run of like boolean operators and each labeled jump 1
+//  - nesting: deepest nesting of control structures, lambdas adding a level
+//  - parameters: declared parameters
+// Bodies of local and anonymous classes are left to their own methods.
+public final class MethodMetrics {
+
+    // The measures the built-in rules put a limit on, with each one's rule and default limit
+    public enum Metric {
+        LINES(RuleId.LONG_METHOD, "max-lines", 50),
+        CYCLOMATIC(RuleId.COMPLEX_METHOD, "max-cyclomatic", 10),
+        COGNITIVE(RuleId.COGNITIVE_COMPLEXITY, "max-cognitive", 15),
+        NESTING(RuleId.DEEP_NESTING, "max-nesting", 4),
+        PARAMETERS(RuleId.TOO_MANY_PARAMETERS, "max-parameters", 5);
+
+        final RuleId rule;
+        final String property;
+        final int defaultLimit;
+
+        Metric(RuleId rule, String property, int defaultLimit) {
+            this.rule = rule;
+            this.property = property;
+            this.defaultLimit = defaultLimit;
+        }
+
+        public String property() { return property; }
+        public int defaultLimit() { return defaultLimit; }
+    }
+
+    private final MethodDeclaration node;
+    private final int lines;
+    private final int cyclomatic;
+    private final int cognitive;
+    private final int nesting;
+    private final int parameters;
+
+    private MethodMetrics(MethodDeclaration node, int lines, int cyclomatic, int cognitive, int nesting, int parameters) {
+        this.node = node;
+        this.lines = lines;
+        this.cyclomatic = cyclomatic;
+        this.cognitive = cognitive;
+        this.nesting = nesting;
+        this.parameters = parameters;
+    }
+
+    public static MethodMetrics of(MethodDeclaration md) {
+        Range range = md.getRange().orElse(null);
+        int lines = range == null ? 0 : range.end.line - range.begin.line + 1;
+        Calculator calc = new Calculator();
+        md.getBody().ifPresent(body -> body.accept(calc, null));
+        return new MethodMetrics(md, lines, calc.cyclomatic, calc.cognitive, calc.maxNesting, md.getParameters().size());
+    }
+
+    public MethodDeclaration node() { return node; }
+    public int lines() { return lines; }
+    public int cyclomatic() { return cyclomatic; }
+    public int cognitive() { return cognitive; }
+    public int nesting() { return nesting; }
+    public int parameters() { return parameters; }
+
+    public int get(Metric metric) {
+        switch (metric) {
+            case LINES: return lines;
+            case CYCLOMATIC: return cyclomatic;
+            case COGNITIVE: return cognitive;
+            case NESTING: return nesting;
+            default: return parameters;
+        }
+    }
+
+    // Plain int counters; nothing is collected or printed along the way
+    private static final class Calculator extends VoidVisitorAdapter<Void> {
+        int cyclomatic = 1;
+        int cognitive;
+        int nesting;
+        int maxNesting;
+
+        // A structure that costs 1 plus its nesting and nests what is under it
+        private void structure() {
+            cognitive += 1 + nesting;
+            maxNesting = Math.max(maxNesting, nesting + 1);
+        }
+
+        private void nested(Node n) {
+            nesting++;
+            n.accept(this, null);
+            nesting--;
+        }
+
+        @Override
+        public void visit(IfStmt n, Void arg) {
+            cyclomatic++;
+            boolean elseIf = n.getParentNode().filter(p -> p instanceof IfStmt
+                    && ((IfStmt) p).getElseStmt().map(e -> e == n).orElse(false)).isPresent();
+            if (elseIf) {
+                cognitive++;
+            } else {
+                structure();
+            }
+            n.getCondition().accept(this, arg);
+            nested(n.getThenStmt());
+            if (n.getElseStmt().isPresent()) {
+                Statement otherwise = n.getElseStmt().get();
+                if (otherwise instanceof IfStmt) {
+                    otherwise.accept(this, arg);
+                } else {
+                    cognitive++;
+                    nested(otherwise);
+                }
+            }
+        }
+
+        @Override
+        public void visit(ForStmt n, Void arg) {
+            cyclomatic++;
+            structure();
+            n.getInitialization().forEach(e -> e.accept(this, arg));
+            n.getCompare().ifPresent(e -> e.accept(this, arg));
+            n.getUpdate().forEach(e -> e.accept(this, arg));
+            nested(n.getBody());
+        }
+
+        @Override
+        public void visit(ForEachStmt n, Void arg) {
+            cyclomatic++;
+            structure();
+            n.getIterable().accept(this, arg);
+            nested(n.getBody());
+        }
+
+        @Override
+        public void visit(WhileStmt n, Void arg) {
+            cyclomatic++;
+            structure();
+            n.getCondition().accept(this, arg);
+            nested(n.getBody());
+        }
+
+        @Override
+        public void visit(DoStmt n, Void arg) {
+            cyclomatic++;
+            structure();
+            nested(n.getBody());
+            n.getCondition().accept(this, arg);
+        }
+
+        @Override
+        public void visit(SwitchStmt n, Void arg) {
+            structure();
+            n.getSelector().accept(this, arg);
+            n.getEntries().forEach(this::nested);
+        }
+
+        @Override
+        public void visit(SwitchExpr n, Void arg) {
+            structure();
+            n.getSelector().accept(this, arg);
+            n.getEntries().forEach(this::nested);
+        }
+
+        @Override
+        public void visit(SwitchEntry n, Void arg) {
+            cyclomatic += n.getLabels().size();
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(CatchClause n, Void arg) {
+            cyclomatic++;
+            structure();
+            nested(n.getBody());
+        }
+
+        @Override
+        public void visit(ConditionalExpr n, Void arg) {
+            cyclomatic++;
+            structure();
+            n.getCondition().accept(this, arg);
+            nested(n.getThenExpr());
+            nested(n.getElseExpr());
+        }
+
+        @Override
+        public void visit(BinaryExpr n, Void arg) {
+            BinaryExpr.Operator op = n.getOperator();
+            if (op == BinaryExpr.Operator.AND || op == BinaryExpr.Operator.OR) {
+                cyclomatic++;
+                // a && b && c is one run; the run ends where the operator changes
+                boolean continuesRun = n.getParentNode()
+                        .filter(p -> p instanceof BinaryExpr && ((BinaryExpr) p).getOperator() == op).isPresent();
+                if (!continuesRun) cognitive++;
+            }
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(LambdaExpr n, Void arg) {
+            nested(n.getBody());
+        }
+
+        @Override
+        public void visit(BreakStmt n, Void arg) {
+            if (n.getLabel().isPresent()) cognitive++;
+        }
+
+        @Override
+        public void visit(ContinueStmt n, Void arg) {
+            if (n.getLabel().isPresent()) cognitive++;
+        }
+
+        // Arguments only, not an anonymous class body
+        @Override
+        public void visit(ObjectCreationExpr n, Void arg) {
+            n.getScope().ifPresent(s -> s.accept(this, arg));
+            n.getArguments().forEach(a -> a.accept(this, arg));
+        }
+
+        @Override
+        public void visit(LocalClassDeclarationStmt n, Void arg) {
+            // its methods are measured on their own
+        }
+
+        @Override
+        public void visit(LocalRecordDeclarationStmt n, Void arg) {
+            // its methods are measured on their own
+        }
+    }
+}
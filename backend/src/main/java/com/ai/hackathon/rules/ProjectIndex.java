@@ -0,0 +1,301 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.util.LongIntMap;
+import com.ai.hackathon.util.LshIndex;
+import com.ai.hackathon.util.MinHash;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Project-wide view of every file analyzed so far, by file name: per file a FileSymbols
+// entry, across files primitive counters of which method names are called and which
+// method bodies occur, and an LSH table over the MinHash signatures of all method
+// bodies for near-duplicate lookup. Replacing a file subtracts its old entry first, so the counters
+// always describe the latest version of each file. Cross-file rules query it under a
+// read lock instead of re-parsing other files.
+public final class ProjectIndex {
+
+    // Issues of these rules depend on other files and are recomputed, never carried over
+    public static final Set<RuleId> RULE_IDS = Collections.unmodifiableSet(
+            EnumSet.of(RuleId.DUPLICATE_CODE, RuleId.NEAR_DUPLICATE, RuleId.UNUSED_PUBLIC_METHOD, RuleId.INCONSISTENT_LOGGING));
+
+    // Bucket entries looked at per lookup, so boilerplate-heavy projects stay linear
+    static final int MAX_CANDIDATES = 256;
+
+    private static final int MAGIC = 0x50494458; // "PIDX"
+    private static final int VERSION = 2;
+
+    // A method body in another file that resembles the one looked up
+    static final class Clone {
+        final String fileName;
+        final String method;
+        final int line;
+        final double similarity;
+
+        Clone(String fileName, String method, int line, double similarity) {
+            this.fileName = fileName;
+            this.method = method;
+            this.line = line;
+            this.similarity = similarity;
+        }
+    }
+
+    private final Map<String, FileSymbols> files = new HashMap<>();
+    // Call key -> number of files calling it
+    private final LongIntMap callingFiles = new LongIntMap(4096);
+    // Body fingerprint -> number of methods with that body
+    private final LongIntMap bodies = new LongIntMap(4096);
+    private final int[] loggerFiles = new int[FileSymbols.Logger.values().length];
+    private LshIndex lsh = new LshIndex();
+    // LSH entry id -> owning file and index into its clones; ids of replaced files are
+    // not reused, so the table is rebuilt once they outnumber the live ones
+    private final List<FileSymbols> entryFiles = new ArrayList<>();
+    private int[] entryMethods = new int[256];
+    private final Map<String, int[]> entryIds = new HashMap<>();
+    private int removedEntries;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long updates;
+
+    public void put(FileSymbols extracted) {
+        // Only the primitive arrays are kept, not the extracted file's tree
+        FileSymbols file = new FileSymbols(extracted.fileName, extracted.logger, extracted.calls, extracted.fingerprints,
+                extracted.clones);
+        lock.writeLock().lock();
+        try {
+            FileSymbols old = files.put(file.fileName, file);
+            if (old != null) count(old, -1);
+            count(file, 1);
+            updates++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Issues of the cross-file rules for a file, which need not be the indexed version
+    public List<Issue> check(FileSymbols file, int minFilesForUnused, double nearDuplicateSimilarity) {
+        lock.readLock().lock();
+        try {
+            return CrossFileRules.check(file, this, minFilesForUnused, nearDuplicateSimilarity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int fileCount() {
+        lock.readLock().lock();
+        try {
+            return files.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Grows with every put; lets the owner tell whether a new snapshot is due
+    public long updates() {
+        lock.readLock().lock();
+        try {
+            return updates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The queries below are only called by CrossFileRules under the read lock. "Others"
+    // means every indexed file except the indexed version of the file being checked.
+
+    int otherFiles(FileSymbols file) {
+        return files.size() - (files.containsKey(file.fileName) ? 1 : 0);
+    }
+
+    int otherFilesCalling(FileSymbols file, long callKey) {
+        FileSymbols indexed = files.get(file.fileName);
+        return callingFiles.get(callKey) - (indexed != null ? FileSymbols.count(indexed.calls, callKey) : 0);
+    }
+
+    int otherBodies(FileSymbols file, long fingerprint) {
+        FileSymbols indexed = files.get(file.fileName);
+        return bodies.get(fingerprint) - (indexed != null ? FileSymbols.count(indexed.fingerprints, fingerprint) : 0);
+    }
+
+    // A method with exactly this body in another file, or null. Equal bodies have equal
+    // signatures, so the LSH buckets hold it.
+    Clone sameBody(FileSymbols file, long fingerprint, int[] signature) {
+        for (int id : lsh.candidates(signature, MAX_CANDIDATES)) {
+            FileSymbols other = entryFiles.get(id);
+            int m = entryMethods[id];
+            if (!other.fileName.equals(file.fileName) && other.clones.fingerprints[m] == fingerprint) {
+                return new Clone(other.fileName, other.clones.names[m], other.clones.lines[m], 1.0);
+            }
+        }
+        return null;
+    }
+
+    // The most similar method body in another file at or above minSimilarity, not
+    // counting exact copies (those are duplicate-code issues), or null
+    Clone nearestClone(FileSymbols file, long fingerprint, int[] signature, double minSimilarity) {
+        Clone best = null;
+        for (int id : lsh.candidates(signature, MAX_CANDIDATES)) {
+            FileSymbols other = entryFiles.get(id);
+            int m = entryMethods[id];
+            if (other.fileName.equals(file.fileName) || other.clones.fingerprints[m] == fingerprint) continue;
+            double similarity = MinHash.similarity(signature, other.clones.signatures[m]);
+            if (similarity >= minSimilarity && (best == null || similarity > best.similarity)) {
+                best = new Clone(other.fileName, other.clones.names[m], other.clones.lines[m], similarity);
+            }
+        }
+        return best;
+    }
+
+    int otherFilesLogging(FileSymbols file, FileSymbols.Logger logger) {
+        FileSymbols indexed = files.get(file.fileName);
+        return loggerFiles[logger.ordinal()] - (indexed != null && indexed.logger == logger ? 1 : 0);
+    }
+
+    private void count(FileSymbols file, int delta) {
+        for (long call : file.calls) callingFiles.add(call, delta);
+        for (long fp : file.fingerprints) bodies.add(fp, delta);
+        loggerFiles[file.logger.ordinal()] += delta;
+        if (delta > 0) {
+            addEntries(file);
+            return;
+        }
+        for (int id : entryIds.remove(file.fileName)) {
+            lsh.remove(id);
+            entryFiles.set(id, null);
+        }
+        removedEntries += file.clones.size();
+        if (removedEntries > 4096 && removedEntries > entryFiles.size() - removedEntries) {
+            lsh = new LshIndex();
+            entryFiles.clear();
+            entryIds.clear();
+            removedEntries = 0;
+            for (FileSymbols live : files.values()) {
+                // the replacement of the removed file is added by put() right after
+                if (!live.fileName.equals(file.fileName)) addEntries(live);
+            }
+        }
+    }
+
+    private void addEntries(FileSymbols file) {
+        int[] ids = new int[file.clones.size()];
+        for (int m = 0; m < ids.length; m++) {
+            int id = lsh.add(file.clones.signatures[m]);
+            entryFiles.add(file);
+            if (id == entryMethods.length) entryMethods = Arrays.copyOf(entryMethods, id * 2);
+            entryMethods[id] = m;
+            ids[m] = id;
+        }
+        entryIds.put(file.fileName, ids);
+    }
+
+    // Binary snapshot: magic, version, file count, then per file the UTF-8 name, the
+    // logger ordinal, both key arrays and per comparable method its name, line,
+    // fingerprint and signature, all big-endian. Written aside and renamed.
+    public void writeSnapshot(Path path) throws IOException {
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+            for (FileSymbols file : files.values()) {
+                writeString(out, file.fileName);
+                out.writeByte(file.logger.ordinal());
+                writeLongs(out, file.calls);
+                writeLongs(out, file.fingerprints);
+                FileSymbols.Clones clones = file.clones;
+                out.writeInt(clones.size());
+                for (int m = 0; m < clones.size(); m++) {
+                    writeString(out, clones.names[m]);
+                    out.writeInt(clones.lines[m]);
+                    out.writeLong(clones.fingerprints[m]);
+                    for (int v : clones.signatures[m]) out.writeInt(v);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Memory-maps the snapshot and bulk-reads the key arrays; counters are rebuilt from them
+    public static ProjectIndex readSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException("Not a project index snapshot: " + path);
+            }
+            FileSymbols.Logger[] loggers = FileSymbols.Logger.values();
+            ProjectIndex index = new ProjectIndex();
+            int count = buf.getInt();
+            for (int i = 0; i < count; i++) {
+                String name = readString(buf);
+                FileSymbols.Logger logger = loggers[buf.get()];
+                long[] calls = readLongs(buf);
+                long[] fingerprints = readLongs(buf);
+                int methods = buf.getInt();
+                FileSymbols.Clones clones = new FileSymbols.Clones(new String[methods], new int[methods],
+                        new long[methods], new int[methods][]);
+                for (int m = 0; m < methods; m++) {
+                    clones.names[m] = readString(buf);
+                    clones.lines[m] = buf.getInt();
+                    clones.fingerprints[m] = buf.getLong();
+                    clones.signatures[m] = new int[MinHash.SIZE];
+                    buf.asIntBuffer().get(clones.signatures[m]);
+                    buf.position(buf.position() + MinHash.SIZE * Integer.BYTES);
+                }
+                FileSymbols file = new FileSymbols(name, logger, calls, fingerprints, clones);
+                index.files.put(file.fileName, file);
+                index.count(file, 1);
+            }
+            return index;
+        } catch (RuntimeException e) {
+            // truncated or corrupt file
+            throw new IOException("Unreadable project index snapshot " + path + ": " + e, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long v : values) out.writeLong(v);
+    }
+
+    private static long[] readLongs(ByteBuffer buf) {
+        long[] values = new long[buf.getInt()];
+        buf.asLongBuffer().get(values);
+        buf.position(buf.position() + values.length * Long.BYTES);
+        return values;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.model.Severity;
+
+// Common contract of everything the RuleEngine can run: regex-based TextRules
+// and visitor-based AstRules.
+public interface Rule {
+    String id();
+
+    // Built-in rules map to their RuleId by id, anything else is CUSTOM
+    default RuleId ruleId() {
+        return RuleId.fromId(id());
+    }
+
+    // Of this rule's issues; custom rules bring their own, built-in ones use their RuleId's
+    default Severity severity() {
+        return ruleId().severity();
+    }
+
+    default int weight() {
+        return ruleId().weight();
+    }
+}
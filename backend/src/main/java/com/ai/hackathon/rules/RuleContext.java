@@ -0,0 +1,57 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.model.RuleId;
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-rule view of the file being analyzed plus the sink for that rule's issues.
+public final class RuleContext {
+
+    private final CharSequence source;
+    private final LineIndex lines;
+    private final Rule rule;
+    private final RuleId ruleId;
+    private final List<Issue> issues = new ArrayList<>();
+
+    RuleContext(CharSequence source, LineIndex lines, Rule rule) {
+        this.source = source;
+        this.lines = lines;
+        this.rule = rule;
+        this.ruleId = rule.ruleId();
+    }
+
+    public CharSequence source() { return source; }
+    public LineIndex lines() { return lines; }
+
+    public void report(int line, String message) {
+        issues.add(issue(line, message));
+    }
+
+    // Reports at the given line with the node's columns; the span keeps the node's height
+    public void report(Node node, int line, String message) {
+        Issue issue = issue(line, message);
+        node.getRange().ifPresent(r -> issue.span(r.begin.column, line + r.end.line - r.begin.line, r.end.column));
+        issues.add(issue);
+    }
+
+    // Reports the source range [start, end) given as character offsets
+    public void reportRange(int start, int end, String message) {
+        int last = Math.max(start, end - 1);
+        issues.add(issue(lines.lineOf(start), message)
+                .span(lines.columnOf(start), lines.lineOf(last), lines.columnOf(last)));
+    }
+
+    List<Issue> issues() { return issues; }
+
+    private Issue issue(int line, String message) {
+        Issue issue = new Issue(ruleId, line, message);
+        if (ruleId == RuleId.CUSTOM) {
+            issue.setSeverity(rule.severity());
+            issue.setWeight(rule.weight());
+        }
+        return issue;
+    }
+}
@@ -0,0 +1,280 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// Runs a fixed set of rules over a file with one line index, one regex scan for all
+// text rules (issues of different rules may overlap) and one AST walk for all AST
+// rules. Issues come back grouped in rule order.
+// Counts every rule's issues; with sampleEvery > 0 one run in sampleEvery also times each
+// rule on its own (text rules with a separate scan of their own pattern), so a slow
+// rule shows up without timing every run. Both go to the RuleStats, by rule id.
+public final class RuleEngine {
+
+    private static final RuleEngine DEFAULT = new RuleEngine(BuiltInRules.all());
+
+    private final List<Rule> rules;
+    private final Pattern textPattern;
+    private final int[] textRuleIndexes;
+    private final String[] groupNames;
+    private final int[] astRuleIndexes;
+    private final boolean usesMetrics;
+    private final int metricRules;
+
+    private final int sampleEvery;
+    private final AtomicLong runs = new AtomicLong();
+    private final RuleStats.Counters[] counters;
+
+    public RuleEngine(List<Rule> rules) {
+        this(rules, 0);
+    }
+
+    public RuleEngine(List<Rule> rules, int sampleEvery) {
+        this(rules, sampleEvery, new RuleStats());
+    }
+
+    public RuleEngine(List<Rule> rules, int sampleEvery, RuleStats stats) {
+        this.rules = List.copyOf(rules);
+        this.sampleEvery = sampleEvery;
+        this.counters = new RuleStats.Counters[this.rules.size()];
+        for (int i = 0; i < counters.length; i++) counters[i] = stats.of(this.rules.get(i).id());
+
+        List<String> groups = new ArrayList<>();
+        List<Integer> textIdx = new ArrayList<>();
+        List<Integer> astIdx = new ArrayList<>();
+        for (int i = 0; i < this.rules.size(); i++) {
+            Rule rule = this.rules.get(i);
+            if (rule instanceof TextRule) {
+                TextRule tr = (TextRule) rule;
+                groups.add("(?<r" + i + ">" + inlineFlags(tr.flags()) + tr.regex() + ")");
+                textIdx.add(i);
+            } else if (rule instanceof AstRule) {
+                astIdx.add(i);
+            } else {
+                throw new IllegalArgumentException("Unsupported rule type: " + rule.getClass().getName());
+            }
+        }
+        this.textPattern = textIdx.isEmpty() ? null : merge(groups, textIdx);
+        this.textRuleIndexes = textIdx.stream().mapToInt(Integer::intValue).toArray();
+        this.astRuleIndexes = astIdx.stream().mapToInt(Integer::intValue).toArray();
+        this.metricRules = (int) astIdx.stream().filter(i -> ((AstRule) this.rules.get(i)).usesMetrics()).count();
+        this.usesMetrics = metricRules > 0;
+        this.groupNames = new String[this.rules.size()];
+        for (int idx : textRuleIndexes) {
+            groupNames[idx] = "r" + idx;
+        }
+    }
+
+    // On failure the alternation is rebuilt one rule at a time to name the rule that
+    // breaks it, e.g. with a named group another rule already defines
+    private Pattern merge(List<String> groups, List<Integer> textIdx) {
+        try {
+            return Pattern.compile(String.join("|", groups));
+        } catch (PatternSyntaxException e) {
+            for (int k = 1; k <= groups.size(); k++) {
+                try {
+                    Pattern.compile(String.join("|", groups.subList(0, k)));
+                } catch (PatternSyntaxException culprit) {
+                    throw new IllegalArgumentException("Rule '" + rules.get(textIdx.get(k - 1)).id()
+                            + "' cannot be combined with the other text rules: " + culprit.getDescription(), culprit);
+                }
+            }
+            throw e;
+        }
+    }
+
+    public static RuleEngine defaultEngine() {
+        return DEFAULT;
+    }
+
+    public List<Rule> rules() {
+        return rules;
+    }
+
+    // Counts and times of the rule at this index of rules(), shared with every engine
+    // built on the same RuleStats
+    public RuleStats.Counters stats(int rule) {
+        return counters[rule];
+    }
+
+    public List<Issue> run(CompilationUnit cu, String source) {
+        return run(cu, source, LineIndex.of(source));
+    }
+
+    public List<Issue> run(ParsedDocument doc) {
+        return run(doc.unit(), doc.source(), doc.lines());
+    }
+
+    // Runs the rules over parts of a document only: text rules see the lines spanned by
+    // each root, AST rules see the subtrees under each root
+    public List<Issue> run(ParsedDocument doc, List<? extends Node> roots) {
+        LineIndex lines = doc.lines();
+        RuleContext[] contexts = newContexts(doc.source(), lines);
+        boolean timed = startRun();
+        SharedVisitor visitor = astRuleIndexes.length > 0 ? new SharedVisitor(contexts, timed) : null;
+        for (Node root : roots) {
+            Range range = root.getRange().orElse(null);
+            if (range == null) continue;
+            scanText(doc.source(), contexts, lines.startOf(range.begin.line), lines.startOf(range.end.line + 1), timed);
+            if (visitor != null) {
+                root.accept(visitor, null);
+            }
+        }
+        return collect(contexts);
+    }
+
+    private List<Issue> run(CompilationUnit cu, String source, LineIndex lines) {
+        RuleContext[] contexts = newContexts(source, lines);
+        boolean timed = startRun();
+        scanText(source, contexts, 0, source.length(), timed);
+        if (astRuleIndexes.length > 0) {
+            cu.accept(new SharedVisitor(contexts, timed), null);
+        }
+        return collect(contexts);
+    }
+
+    // Whether this run is one of the timed ones
+    private boolean startRun() {
+        if (sampleEvery <= 0 || runs.incrementAndGet() % sampleEvery != 0) return false;
+        for (RuleStats.Counters c : counters) c.sampledRuns.increment();
+        return true;
+    }
+
+    private RuleContext[] newContexts(String source, LineIndex lines) {
+        RuleContext[] contexts = new RuleContext[rules.size()];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = new RuleContext(source, lines, rules.get(i));
+        }
+        return contexts;
+    }
+
+    private List<Issue> collect(RuleContext[] contexts) {
+        List<Issue> issues = new ArrayList<>();
+        for (int i = 0; i < contexts.length; i++) {
+            List<Issue> found = contexts[i].issues();
+            if (!found.isEmpty()) counters[i].matches.add(found.size());
+            issues.addAll(found);
+        }
+        return issues;
+    }
+
+    // The merged scan stops at every offset where some rule matches, and there the rule
+    // that won the alternation and each later rule matching at the same offset report, so
+    // a rule's issues are the ones a scan of its own pattern would find, even inside the
+    // span of another rule's issue. A rule does not report again before its last end.
+    private void scanText(String source, RuleContext[] contexts, int from, int to, boolean timed) {
+        if (textPattern == null || from >= to) return;
+        if (timed) timeTextRules(source, from, to);
+        Matcher m = textPattern.matcher(source);
+        m.useTransparentBounds(true);
+        m.useAnchoringBounds(false);
+        Matcher[] own = new Matcher[rules.size()];
+        int[] nextFrom = new int[rules.size()];
+        for (int pos = from; pos < to; ) {
+            m.region(pos, to);
+            if (!m.find()) break;
+            int start = m.start();
+            boolean later = false;
+            for (int idx : textRuleIndexes) {
+                int end;
+                if (later) {
+                    if (nextFrom[idx] > start) continue;
+                    if (own[idx] == null) own[idx] = ownMatcher(idx, source);
+                    own[idx].region(start, to);
+                    if (!own[idx].lookingAt()) continue;
+                    end = own[idx].end();
+                } else if (m.start(groupNames[idx]) >= 0) {
+                    // Rules before the winner did not match at this offset
+                    later = true;
+                    if (nextFrom[idx] > start) continue;
+                    end = m.end();
+                } else {
+                    continue;
+                }
+                contexts[idx].reportRange(start, end, ((TextRule) rules.get(idx)).message());
+                nextFrom[idx] = Math.max(end, start + 1);
+            }
+            pos = start + 1;
+        }
+    }
+
+    private Matcher ownMatcher(int idx, String source) {
+        Matcher m = ((TextRule) rules.get(idx)).pattern().matcher(source);
+        m.useTransparentBounds(true);
+        m.useAnchoringBounds(false);
+        return m;
+    }
+
+    // Each text rule's own pattern over the same region; only the time is kept, the
+    // issues come from the merged scan
+    private void timeTextRules(String source, int from, int to) {
+        for (int idx : textRuleIndexes) {
+            long start = System.nanoTime();
+            Matcher m = ownMatcher(idx, source);
+            m.region(from, to);
+            while (m.find()) {
+                // count nothing
+            }
+            counters[idx].sampledNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static String inlineFlags(int flags) {
+        StringBuilder sb = new StringBuilder();
+        if ((flags & Pattern.CASE_INSENSITIVE) != 0) sb.append('i');
+        if ((flags & Pattern.MULTILINE) != 0) sb.append('m');
+        if ((flags & Pattern.DOTALL) != 0) sb.append('s');
+        if ((flags & Pattern.UNICODE_CASE) != 0) sb.append('u');
+        if ((flags & Pattern.COMMENTS) != 0) sb.append('x');
+        return sb.length() == 0 ? "" : "(?" + sb + ")";
+    }
+
+    private final class SharedVisitor extends VoidVisitorAdapter<Void> {
+        private final RuleContext[] contexts;
+        private final boolean timed;
+
+        SharedVisitor(RuleContext[] contexts, boolean timed) {
+            this.contexts = contexts;
+            this.timed = timed;
+        }
+
+        @Override
+        public void visit(MethodCallExpr n, Void arg) {
+            for (int idx : astRuleIndexes) {
+                long start = timed ? System.nanoTime() : 0;
+                ((AstRule) rules.get(idx)).visit(n, contexts[idx]);
+                if (timed) counters[idx].sampledNanos.add(System.nanoTime() - start);
+            }
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(MethodDeclaration n, Void arg) {
+            long start = timed ? System.nanoTime() : 0;
+            MethodMetrics metrics = usesMetrics ? MethodMetrics.of(n) : null;
+            // Measuring is shared by the rules using the metrics
+            long measuring = timed && usesMetrics ? (System.nanoTime() - start) / metricRules : 0;
+            for (int idx : astRuleIndexes) {
+                AstRule rule = (AstRule) rules.get(idx);
+                start = timed ? System.nanoTime() : 0;
+                rule.visit(n, contexts[idx]);
+                if (metrics != null && rule.usesMetrics()) rule.visit(metrics, contexts[idx]);
+                if (timed) counters[idx].sampledNanos.add(System.nanoTime() - start + (rule.usesMetrics() ? measuring : 0));
+            }
+            super.visit(n, arg);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ai.hackathon.rules;
+
+import java.util.List;
+
+// Builds engines with one sampling rate and one RuleStats, so the default engine and
+// every rule profile's engine are timed alike and counted together
+public final class RuleEngineFactory {
+
+    private final int sampleEvery;
+    private final RuleStats stats;
+
+    public RuleEngineFactory(int sampleEvery) {
+        this(sampleEvery, new RuleStats());
+    }
+
+    public RuleEngineFactory(int sampleEvery, RuleStats stats) {
+        this.sampleEvery = sampleEvery;
+        this.stats = stats;
+    }
+
+    public RuleEngine create(List<Rule> rules) {
+        return new RuleEngine(rules, sampleEvery, stats);
+    }
+
+    public RuleStats stats() {
+        return stats;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.util.ParsedDocument;
+import com.ai.hackathon.util.ScoreEngine;
+import com.ai.hackathon.util.ScoringProfile;
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// A named rule plan, compiled once when profiles are loaded: the rule engine with this
+// profile's metric limits and without its disabled rules, the scoring weights and the
+// score floor. Immutable; a reload builds new plans and swaps them in, so an analysis
+// keeps the plan it started with.
+public final class RuleProfile {
+
+    public static final String DEFAULT = "default";
+
+    private final String name;
+    private final RuleEngine engine;
+    private final ScoringProfile scoring;
+    private final int scoreFloor;
+    // Cross-file rules are run by the project index, so they are dropped from its issues
+    private final boolean[] disabled;
+    private final boolean anyDisabled;
+
+    public RuleProfile(String name, RuleEngine engine, ScoringProfile scoring, int scoreFloor, Set<RuleId> disabledCrossFile) {
+        this.name = name;
+        this.engine = engine;
+        this.scoring = scoring;
+        this.scoreFloor = scoreFloor;
+        this.disabled = new boolean[RuleId.values().length];
+        disabledCrossFile.forEach(rule -> disabled[rule.ordinal()] = true);
+        this.anyDisabled = !disabledCrossFile.isEmpty();
+    }
+
+    public String name() { return name; }
+    public RuleEngine engine() { return engine; }
+    public ScoringProfile scoring() { return scoring; }
+    public int scoreFloor() { return scoreFloor; }
+
+    public List<Issue> run(ParsedDocument doc) {
+        return engine.run(doc);
+    }
+
+    public List<Issue> run(ParsedDocument doc, List<? extends Node> roots) {
+        return engine.run(doc, roots);
+    }
+
+    // The project index's issues without those of rules this profile disables
+    public List<Issue> crossFile(List<Issue> issues) {
+        if (!anyDisabled) return issues;
+        List<Issue> kept = new ArrayList<>(issues.size());
+        for (Issue issue : issues) {
+            if (!disabled[issue.getRuleId().ordinal()]) kept.add(issue);
+        }
+        return kept;
+    }
+
+    public int score(List<Issue> issues) {
+        return Math.max(ScoreEngine.scoreFromIssues(issues, scoring), scoreFloor);
+    }
+}
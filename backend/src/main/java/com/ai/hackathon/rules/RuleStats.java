@@ -0,0 +1,36 @@
+package com.ai.hackathon.rules;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Issue counts and sampled times by rule id. Engines sharing one RuleStats add to the
+// same counters, so a rule's meters cover every profile and outlive profile reloads.
+public final class RuleStats {
+
+    private final Map<String, Counters> byRule = new ConcurrentHashMap<>();
+
+    public Counters of(String ruleId) {
+        return byRule.computeIfAbsent(ruleId, id -> new Counters());
+    }
+
+    public static final class Counters {
+        final LongAdder matches = new LongAdder();
+        final LongAdder sampledRuns = new LongAdder();
+        final LongAdder sampledNanos = new LongAdder();
+
+        // Issues reported by the rule
+        public long matches() {
+            return matches.sum();
+        }
+
+        // Runs that timed the rule, and the time it took in them
+        public long sampledRuns() {
+            return sampledRuns.sum();
+        }
+
+        public long sampledNanos() {
+            return sampledNanos.sum();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.Severity;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// A regex rule scanned over the raw source. All text rules of an engine are merged
+// into a single alternation; the engine still reports a rule's matches that overlap
+// another rule's, but numbered back-references, which would point at another rule's
+// group, are refused.
+// The rule's own pattern is compiled up front, which validates it and lets the engine
+// time the rule on its own. It is also compiled as a group, as the alternation holds
+// it, so a regex that would run past its group (an unterminated \Q quote, a comment
+// in (?x) mode) is refused here with the rule's id rather than breaking the merge.
+public final class TextRule implements Rule {
+
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\[1-9]");
+
+    private final String id;
+    private final String regex;
+    private final int flags;
+    private final String message;
+    private final Severity severity;
+    private final int weight;
+    private final Pattern pattern;
+
+    public TextRule(String id, String regex, int flags, String message) {
+        this(id, regex, flags, message, null, -1);
+    }
+
+    // A rule without a RuleId of its own, with the severity and penalty of its issues
+    public TextRule(String id, String regex, int flags, String message, Severity severity, int weight) {
+        if (BACK_REFERENCE.matcher(regex).find()) {
+            throw new IllegalArgumentException("Rule '" + id + "': numbered back-references are not supported");
+        }
+        this.id = id;
+        this.regex = regex;
+        this.flags = flags;
+        this.message = message;
+        this.severity = severity;
+        this.weight = weight;
+        this.pattern = Pattern.compile(regex, flags);
+        try {
+            Pattern.compile("(?:" + regex + ")", flags);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Rule '" + id + "': the pattern does not close as a group: "
+                    + e.getDescription(), e);
+        }
+    }
+
+    @Override
+    public String id() { return id; }
+    public String regex() { return regex; }
+    public int flags() { return flags; }
+    public String message() { return message; }
+    public Pattern pattern() { return pattern; }
+
+    @Override
+    public Severity severity() {
+        return severity != null ? severity : Rule.super.severity();
+    }
+
+    @Override
+    public int weight() {
+        return weight >= 0 ? weight : Rule.super.weight();
+    }
+}
@@ -0,0 +1,16 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.AnalysisResult;
+
+// Progress callbacks for a streamed analysis. Calls may come from different threads,
+// and tokens of the two model stages can interleave.
+public interface AnalysisListener {
+
+    String STAGE_SUGGESTIONS = "suggestions";
+    String STAGE_REFACTOR = "refactor";
+
+    // Issues and original score are known; model output is still pending
+    void onAnalysis(AnalysisResult partial);
+
+    void onToken(String stage, String token);
+}
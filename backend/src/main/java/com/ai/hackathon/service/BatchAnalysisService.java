@@ -0,0 +1,162 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.AnalysisResult;
+import com.ai.hackathon.model.AnalysisTier;
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.rules.RuleProfile;
+import com.ai.hackathon.util.ArchiveReader;
+import com.ai.hackathon.util.ParsedDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Reviews many files from one request and writes each AnalysisResult as a line of
+// NDJSON as soon as it completes. Files are fed to CodeAnalyzerService with a cap on
+// how many are in flight; model calls are throttled separately by the LlmProvider.
+@Service
+public class BatchAnalysisService {
+
+    private static final byte[] NEWLINE = {'\n'};
+    private static final AtomicInteger FEEDER_IDS = new AtomicInteger();
+
+    @Autowired
+    private CodeAnalyzerService analyzerService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${batch.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${batch.max-entry-bytes:5242880}")
+    private long maxEntryBytes;
+
+    // Index every file before reviewing any, so cross-file rules see the whole upload
+    @Value("${batch.pre-index:true}")
+    private boolean preIndex;
+
+    @Autowired
+    private ProjectIndexService projectIndex;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private Executor analysisExecutor;
+
+    // One thread per batch unpacks the uploads and hands files out
+    private final ExecutorService feeders = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "batch-feeder-" + FEEDER_IDS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    // With summary set, each line is ReviewHistory.summarize() of the result; a null tier
+    // is picked per file from its issues
+    public void analyze(List<MultipartFile> files, boolean summary, RuleProfile profile, AnalysisTier tier,
+                        ResponseBodyEmitter emitter) {
+        feeders.execute(() -> run(files, summary, profile, tier, emitter));
+    }
+
+    private void run(List<MultipartFile> files, boolean summary, RuleProfile profile, AnalysisTier tier,
+                     ResponseBodyEmitter emitter) {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicBoolean clientGone = new AtomicBoolean();
+        try {
+            if (preIndex) index(files, inFlight);
+            for (MultipartFile file : files) {
+                try (InputStream in = file.getInputStream()) {
+                    ArchiveReader.forEachJavaSource(file.getOriginalFilename(), in, maxEntryBytes, (name, source) -> {
+                        if (clientGone.get()) return;
+                        inFlight.acquireUninterruptibly();
+                        CompletableFuture<AnalysisResult> analysis;
+                        try {
+                            analysis = analyzerService.analyzeAsync(name, source, profile, tier);
+                        } catch (RuntimeException e) {
+                            // e.g. the pool rejected the task: this file fails, the batch goes on
+                            inFlight.release();
+                            send(emitter, failed(name, e.getMessage()), clientGone);
+                            return;
+                        }
+                        analysis.exceptionally(e -> failed(name, e.getMessage()))
+                                .thenApply(result -> summary ? ReviewHistory.summarize(result) : result)
+                                .thenAccept(result -> send(emitter, result, clientGone))
+                                .whenComplete((v, e) -> inFlight.release());
+                    }, (name, reason) -> send(emitter, failed(name, reason), clientGone));
+                } catch (IOException e) {
+                    send(emitter, failed(file.getOriginalFilename(), e.getMessage()), clientGone);
+                }
+                if (clientGone.get()) break;
+            }
+            // Wait for the stragglers before closing the stream
+            inFlight.acquireUninterruptibly(maxInFlight);
+            emitter.complete();
+        } catch (RuntimeException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    // Parses and indexes every source on the analysis pool; unreadable uploads are
+    // reported by the review pass
+    private void index(List<MultipartFile> files, Semaphore inFlight) {
+        for (MultipartFile file : files) {
+            try (InputStream in = file.getInputStream()) {
+                ArchiveReader.forEachJavaSource(file.getOriginalFilename(), in, maxEntryBytes, (name, source) -> {
+                    inFlight.acquireUninterruptibly();
+                    try {
+                        CompletableFuture.runAsync(() -> {
+                            ParsedDocument doc = ParsedDocument.parse(source);
+                            if (doc.isParsed()) projectIndex.update(name, doc);
+                        }, analysisExecutor).whenComplete((v, e) -> inFlight.release());
+                    } catch (RuntimeException e) {
+                        // the review pass reports the file
+                        inFlight.release();
+                    }
+                }, (name, reason) -> {
+                    // reported with the review pass
+                });
+            } catch (IOException e) {
+                // reported with the review pass
+            }
+        }
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    private void send(ResponseBodyEmitter emitter, AnalysisResult result, AtomicBoolean clientGone) {
+        if (clientGone.get()) return;
+        try {
+            byte[] line = objectMapper.writeValueAsBytes(result);
+            synchronized (emitter) {
+                emitter.send(line, MediaType.APPLICATION_OCTET_STREAM);
+                emitter.send(NEWLINE, MediaType.APPLICATION_OCTET_STREAM);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected or the emitter timed out; stop feeding new files
+            clientGone.set(true);
+        }
+    }
+
+    private static AnalysisResult failed(String fileName, String reason) {
+        AnalysisResult result = new AnalysisResult();
+        result.setFileName(fileName);
+        result.setIssues(List.of(new Issue(RuleId.ERROR, 0, "Analysis failed: " + reason)));
+        result.setAiSuggestions(List.of());
+        return result;
+    }
+}
@@ -1,116 +1,335 @@
 package com.ai.hackathon.service;
 
+import com.ai.hackathon.fixes.FixEngine;
+import com.ai.hackathon.fixes.FixResult;
 import com.ai.hackathon.model.AnalysisResult;
+import com.ai.hackathon.model.AnalysisTier;
 import com.ai.hackathon.model.Issue;
-import com.ai.hackathon.util.JavaHeuristics;
-import com.ai.hackathon.util.ScoreEngine;
-import com.github.javaparser.JavaParser;
-import com.github.javaparser.ParseResult;
-import com.github.javaparser.ast.CompilationUnit;
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.model.Severity;
+import com.ai.hackathon.rules.RuleProfile;
+import com.ai.hackathon.util.CodeBlocks;
+import com.ai.hackathon.util.ParsedDocument;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 @Service
 public class CodeAnalyzerService {
 
+    private static final Logger log = LoggerFactory.getLogger(CodeAnalyzerService.class);
+
+    // "1. **Title**: text" lines of a model answer
+    private static final Pattern NUMBERED_SUGGESTION = Pattern.compile("\\d+\\.\\s+\\*\\*.*\\*\\*:.*");
+
+    @Autowired
+    private LlmProvider llmProvider;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private Executor analysisExecutor;
+
+    // Previously reviewed versions, including their refactored code
+    @Autowired
+    private ReviewHistory history;
+
+    @Autowired
+    private MemberRefactorer memberRefactorer;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Autowired
+    private ProjectIndexService projectIndex;
+
     @Autowired
-    private OpenAIClient openAIClient;
+    private RuleProfiles ruleProfiles;
+
+    @Autowired
+    private FixEngine fixEngine;
+
+    @Autowired
+    private SuggestionCache suggestionCache;
+
+    @Autowired
+    private ObservationRegistry observations;
+
+    // Files longer than this are refactored member by member in parallel chunks,
+    // since a single answer for the whole file would be truncated
+    @Value("${refactor.chunk.threshold-lines:300}")
+    private int chunkThresholdLines;
+
+    // Tier chosen when the request leaves it to the issues found: fewer issues than
+    // this are reviewed locally only, and the model refactors the file only when one is
+    // at least this severe; otherwise it only suggests
+    @Value("${analysis.tier.suggestions-min-issues:1}")
+    private int suggestionsMinIssues;
 
-    // Add a map to store previously refactored code
-    private Map<String, String> previouslyRefactored = new ConcurrentHashMap<>();
+    @Value("${analysis.tier.full-min-severity:CRITICAL}")
+    private Severity fullMinSeverity;
 
     public AnalysisResult analyzeOnly(String fileName, String source) {
-        AnalysisResult result = new AnalysisResult();
-        result.setFileName(fileName);
+        return analyzeAsync(fileName, source).join();
+    }
+
+    // Parsing and heuristics run on the analysis pool; the two model calls are sent
+    // together through the async HttpClient, so no thread waits on the network.
+    public CompletableFuture<AnalysisResult> analyzeAsync(String fileName, String source) {
+        return analyzeAsync(fileName, source, ruleProfiles.defaultProfile());
+    }
+
+    public CompletableFuture<AnalysisResult> analyzeAsync(String fileName, String source, RuleProfile profile) {
+        return analyzeAsync(fileName, source, profile, null);
+    }
+
+    // A null tier is picked from the issues found (see tierFor)
+    public CompletableFuture<AnalysisResult> analyzeAsync(String fileName, String source, RuleProfile profile, AnalysisTier tier) {
+        Observation observation = startAnalysis("full");
+        return observed(observation, CompletableFuture.supplyAsync(() -> inScope(observation, () -> prepare(fileName, source, profile, tier)), analysisExecutor)
+                .thenCompose(req -> inScope(observation, () -> askModelAndRescore(req, null))));
+    }
+
+    // Like analyzeAsync, but reports the heuristic result first and streams model tokens
+    // to the listener while they are generated
+    public CompletableFuture<AnalysisResult> analyzeStreaming(String fileName, String source, RuleProfile profile,
+                                                              AnalysisTier tier, AnalysisListener listener) {
+        Observation observation = startAnalysis("stream");
+        return observed(observation, CompletableFuture.supplyAsync(() -> inScope(observation, () -> prepare(fileName, source, profile, tier)), analysisExecutor)
+                .thenCompose(req -> inScope(observation, () -> {
+                    if (req.issues != null) {
+                        listener.onAnalysis(req.result);
+                    }
+                    return askModelAndRescore(req, listener);
+                })));
+    }
+
+    // Heuristic issues, scores and the AST refactor only; never calls the model
+    public CompletableFuture<AnalysisResult> analyzeHeuristics(String fileName, String source, RuleProfile profile) {
+        Observation observation = startAnalysis("heuristics");
+        return observed(observation, CompletableFuture.supplyAsync(() -> inScope(observation, () -> {
+            AnalysisRequest req = prepare(fileName, source, profile, AnalysisTier.HEURISTICS);
+            if (req.issues == null) return parseFailed(req.result);
+            return reviewLocally(req);
+        }), analysisExecutor));
+    }
+
+    // One "analysis" observation per request: a timer and the parent span of its model calls
+    Observation startAnalysis(String mode) {
+        return Observation.createNotStarted("analysis", observations)
+                .lowCardinalityKeyValue("mode", mode)
+                .start();
+    }
+
+    // Work done in scope becomes a child of the observation, including model calls it sends
+    static <T> T inScope(Observation observation, Supplier<T> work) {
+        try (Observation.Scope scope = observation.openScope()) {
+            return work.get();
+        }
+    }
+
+    static <T> CompletableFuture<T> observed(Observation observation, CompletableFuture<T> future) {
+        return future.whenComplete((result, e) -> {
+            if (e != null) observation.error(e);
+            observation.stop();
+        });
+    }
+
+    private AnalysisRequest prepare(String fileName, String source, RuleProfile profile, AnalysisTier tier) {
+        AnalysisRequest req = new AnalysisRequest();
+        req.profile = profile;
+        req.result.setFileName(fileName);
+        req.result.setProfile(profile.name());
 
         // Check if we have a previous refactoring for this source
-        String sourceKey = generateSourceKey(fileName, source);
-        String startingSource = source;
-        boolean isPreviouslyRefactored = previouslyRefactored.containsKey(sourceKey);
+        String versionId = ReviewHistory.versionId(fileName, source);
+        req.result.setVersionId(versionId);
+        req.startingSource = source;
+        AnalysisResult previous = history.get(versionId);
+        req.isPreviouslyRefactored = previous != null && previous.getRefactoredSource() != null;
 
         // If previously refactored, use that version as starting point
-        if (isPreviouslyRefactored) {
-            startingSource = previouslyRefactored.get(sourceKey);
+        if (req.isPreviouslyRefactored) {
+            req.startingSource = previous.getRefactoredSource();
         }
 
-        result.setOriginalSource(source);
-
-        JavaParser parser = new JavaParser();
-        ParseResult<CompilationUnit> pr = parser.parse(source);
-        if (pr.isSuccessful() && pr.getResult().isPresent()) {
-            // Process original code as before
-            CompilationUnit cu = pr.getResult().get();
-            List<Issue> issues = JavaHeuristics.findIssuesWithLines(cu, source);
-            result.setIssues(issues);
-
-            int origScore = ScoreEngine.scoreFromIssues(issues);
-            origScore = Math.max(origScore, 40);
-            result.setOriginalScore(origScore);
-
-            String astRefactored = JavaHeuristics.applyAstRefactors(startingSource);
-
-            StringBuilder prompt = new StringBuilder();
-            // Modify prompt to be more aggressive if previously refactored
-            if (isPreviouslyRefactored) {
-                prompt.append("You are a senior Java refactoring expert. The code needs further improvements to reach a perfect score. ");
-                prompt.append("The code was previously refactored but still has these issues:\n");
-            } else {
-                prompt.append("You are a senior Java reviewer. The file has the following issues:\n");
-            }
+        req.result.setOriginalSource(source);
 
-            for (Issue iss : issues) {
-                prompt.append("Line ").append(iss.getLine()).append(": ").append(iss.getMessage()).append("\n");
-            }
-            prompt.append("\nProvide concise suggestions to fix each issue, and provide a brief overall summary. Reply in plain text.");
+        // Parse once; every stage below works on this document or a copy of its tree
+        ParsedDocument doc = metrics.time(PipelineMetrics.STAGE_PARSE, () -> ParsedDocument.parse(source));
+        if (!doc.isParsed()) {
+            return req;
+        }
+        metrics.recordSourceLines(doc.lines().lineCount());
+        req.issues = metrics.time(PipelineMetrics.STAGE_HEURISTICS, () -> profile.run(doc));
+        req.issues.addAll(metrics.time(PipelineMetrics.STAGE_CROSS_FILE, () -> profile.crossFile(projectIndex.review(fileName, doc))));
+        req.result.setIssues(req.issues);
+        req.result.setOriginalScore(profile.score(req.issues));
+        req.result.setTier(tier != null ? tier : tierFor(req.issues));
+        metrics.recordTier(req.result.getTier());
+
+        ParsedDocument startingDoc = req.isPreviouslyRefactored
+                ? metrics.time(PipelineMetrics.STAGE_PARSE, () -> ParsedDocument.parse(req.startingSource))
+                : doc;
+        req.parsed = doc;
+        req.fixes = metrics.time(PipelineMetrics.STAGE_AST_REFACTOR, () -> fixEngine.apply(startingDoc));
+        req.astRefactored = req.fixes.document();
+        req.chunked = startingDoc.isParsed() && startingDoc.lines().lineCount() > chunkThresholdLines;
+        return req;
+    }
 
-            String aiResp = openAIClient.askModel(prompt.toString());
-            List<String> suggestions = parseAiSuggestions(aiResp);
-            result.setAiSuggestions(suggestions);
+    private CompletableFuture<AnalysisResult> askModelAndRescore(AnalysisRequest req, AnalysisListener listener) {
+        AnalysisResult result = req.result;
+        if (req.issues == null) {
+            return CompletableFuture.completedFuture(parseFailed(result));
+        }
+        if (result.getTier() == AnalysisTier.HEURISTICS) {
+            return CompletableFuture.completedFuture(reviewLocally(req));
+        }
 
-            // Apply more aggressive refactoring if previously refactored
-            String refactoredSource = applyRefactoringWithAISuggestions(startingSource, suggestions, astRefactored, isPreviouslyRefactored);
-            result.setRefactoredSource(refactoredSource);
+        // Both prompts only depend on the heuristic issues, so in the full tier they go out together
+        CompletableFuture<List<String>> suggestions = suggestions(
+                req.isPreviouslyRefactored ? SuggestionCache.KIND_FURTHER : SuggestionCache.KIND_REVIEW, req.issues,
+                () -> ask(buildSuggestionPrompt(req.issues, req.isPreviouslyRefactored), listener, AnalysisListener.STAGE_SUGGESTIONS));
+        CompletableFuture<ParsedDocument> refactored = result.getTier() == AnalysisTier.FULL
+                ? refactor(req, listener)
+                // The AST refactor is the refactored version
+                : CompletableFuture.completedFuture(req.astRefactored);
 
-            // Store this refactored version for future use
-            previouslyRefactored.put(sourceKey, refactoredSource);
+        return suggestions.thenCombineAsync(refactored, (aiSuggestions, refactoredDoc) -> {
+            result.setAiSuggestions(aiSuggestions);
+            result.setRefactoredSource(refactoredDoc.source());
+            if (refactoredDoc == req.astRefactored) result.setAppliedFixes(req.fixes.fired());
 
             // Analyze refactored code
-            ParseResult<CompilationUnit> pr2 = parser.parse(refactoredSource);
-            if (pr2.isSuccessful() && pr2.getResult().isPresent()) {
-                List<Issue> refactoredIssues = JavaHeuristics.findIssuesWithLines(pr2.getResult().get(), refactoredSource);
-
-                int newScore = ScoreEngine.scoreFromIssues(refactoredIssues);
-                newScore = Math.max(newScore, 40);
-                result.setRefactoredScore(newScore);
-            } else {
-                result.setRefactoredScore(0);
-            }
-        } else {
-            // Error handling remains the same
-            result.setIssues(List.of(new Issue(0, "Unable to parse Java file. Provide a valid .java file.")));
-            result.setOriginalScore(0);
-            result.setAiSuggestions(List.of("Parsing failed."));
-            result.setRefactoredSource(null);
-            result.setRefactoredScore(0);
+            result.setRefactoredScore(rescore(req, refactoredDoc));
+
+            // Store this review, including the refactored version, for future use
+            history.put(result);
+            return result;
+        }, analysisExecutor);
+    }
+
+    // Full tier: the model's refactor of the whole file, or of its members for long files
+    private CompletableFuture<ParsedDocument> refactor(AnalysisRequest req, AnalysisListener listener) {
+        return req.chunked
+                ? refactorInChunks(req)
+                : ask(buildRefactorPrompt(req.startingSource, req.issues, req.isPreviouslyRefactored), listener, AnalysisListener.STAGE_REFACTOR)
+                        // Without an answer the AST refactor stands
+                        .handle((resp, e) -> e != null ? req.astRefactored.source() : extractRefactoredCode(resp, req.astRefactored.source()))
+                        // Reuse the AST refactor's tree when the AI fell back to it
+                        .thenApply(source -> source.equals(req.astRefactored.source())
+                                ? req.astRefactored
+                                : metrics.time(PipelineMetrics.STAGE_PARSE, () -> ParsedDocument.parse(source)));
+    }
+
+    // Heuristics tier: the AST refactor is the refactored version and the model is not asked
+    private AnalysisResult reviewLocally(AnalysisRequest req) {
+        req.result.setAiSuggestions(List.of());
+        req.result.setRefactoredSource(req.astRefactored.source());
+        req.result.setAppliedFixes(req.fixes.fired());
+        req.result.setRefactoredScore(rescore(req, req.astRefactored));
+        history.put(req.result);
+        return req.result;
+    }
+
+    // The tier of a request that leaves it to the issues found
+    AnalysisTier tierFor(List<Issue> issues) {
+        if (issues.size() < suggestionsMinIssues) return AnalysisTier.HEURISTICS;
+        for (Issue iss : issues) {
+            if (iss.getSeverity().compareTo(fullMinSeverity) >= 0) return AnalysisTier.FULL;
         }
+        return AnalysisTier.SUGGESTIONS;
+    }
 
+    private static AnalysisResult parseFailed(AnalysisResult result) {
+        result.setIssues(List.of(new Issue(RuleId.ERROR, 0, "Unable to parse Java file. Provide a valid .java file.")));
+        result.setOriginalScore(0);
+        result.setAiSuggestions(List.of("Parsing failed."));
+        result.setRefactoredSource(null);
+        result.setRefactoredScore(0);
+        result.setTier(AnalysisTier.HEURISTICS);
         return result;
     }
 
-    // Helper method to generate a key for the source code
-    private String generateSourceKey(String fileName, String source) {
-        // Create a simple hash of filename and source content
-        return fileName + "_" + source.hashCode();
+    // When no fix applied to the reviewed source and nothing else replaced it, the
+    // refactored document is the original one and its score stands
+    private int rescore(AnalysisRequest req, ParsedDocument refactoredDoc) {
+        if (refactoredDoc == req.parsed) return req.result.getOriginalScore();
+        return metrics.time(PipelineMetrics.STAGE_RESCORE, () -> rescore(req.profile, req.result.getFileName(), refactoredDoc));
+    }
+
+    private int rescore(RuleProfile profile, String fileName, ParsedDocument refactoredDoc) {
+        if (!refactoredDoc.isParsed()) {
+            return 0;
+        }
+        List<Issue> refactoredIssues = profile.run(refactoredDoc);
+        refactoredIssues.addAll(profile.crossFile(projectIndex.check(fileName, refactoredDoc)));
+        return profile.score(refactoredIssues);
+    }
+
+    // Refactors the AST-refactored tree's members in parallel chunks; the stitched result
+    // is already re-parsed, and the AST refactor is kept when no chunk came back usable.
+    // Chunk answers are not streamed.
+    private CompletableFuture<ParsedDocument> refactorInChunks(AnalysisRequest req) {
+        return memberRefactorer.refactor(req.astRefactored.unit(), MemberRefactorer.members(req.astRefactored.unit()), req.issues)
+                .thenApply(doc -> doc != null ? doc : req.astRefactored);
+    }
+
+    // Suggestions from the cache when a file with the same kinds of issues was reviewed
+    // before, otherwise from the model; only usable answers are cached
+    CompletableFuture<List<String>> suggestions(String kind, List<Issue> issues, Supplier<CompletableFuture<String>> model) {
+        List<String> cached = suggestionCache.get(kind, issues);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return model.get()
+                .thenApply(response -> {
+                    List<String> parsed = parseAiSuggestions(response);
+                    suggestionCache.put(kind, issues, parsed);
+                    return parsed;
+                })
+                .exceptionally(CodeAnalyzerService::suggestionsUnavailable);
+    }
+
+    private CompletableFuture<String> ask(String prompt, AnalysisListener listener, String stage) {
+        if (listener == null) {
+            return llmProvider.askModelAsync(prompt);
+        }
+        return llmProvider.streamModelAsync(prompt, token -> listener.onToken(stage, token));
+    }
+
+    private String buildSuggestionPrompt(List<Issue> issues, boolean isPreviouslyRefactored) {
+        StringBuilder prompt = new StringBuilder();
+        // Modify prompt to be more aggressive if previously refactored
+        if (isPreviouslyRefactored) {
+            prompt.append("You are a senior Java refactoring expert. The code needs further improvements to reach a perfect score. ");
+            prompt.append("The code was previously refactored but still has these issues:\n");
+        } else {
+            prompt.append("You are a senior Java reviewer. The file has the following issues:\n");
+        }
+
+        for (Issue iss : issues) {
+            prompt.append("Line ").append(iss.getLine()).append(": ").append(iss.getMessage()).append("\n");
+        }
+        prompt.append("\nProvide concise suggestions to fix each issue, and provide a brief overall summary. Reply in plain text.");
+        return prompt.toString();
     }
 
     // Update the refactoring method to be more aggressive when needed
-    private String applyRefactoringWithAISuggestions(String originalSource, List<String> suggestions,
-                                                     String astRefactoredSource, boolean isPreviouslyRefactored) {
+    private String buildRefactorPrompt(String originalSource, List<Issue> issues, boolean isPreviouslyRefactored) {
         StringBuilder promptBuilder = new StringBuilder();
 
         if (isPreviouslyRefactored) {
@@ -122,10 +341,10 @@ public class CodeAnalyzerService {
         }
 
         promptBuilder.append("Here is the Java code to improve:\n\n```java\n").append(originalSource).append("\n```\n\n");
-        promptBuilder.append("Apply these improvements to the code:\n");
+        promptBuilder.append("Fix these issues found by static analysis:\n");
 
-        for (String suggestion : suggestions) {
-            promptBuilder.append("- ").append(suggestion).append("\n");
+        for (Issue iss : issues) {
+            promptBuilder.append("- Line ").append(iss.getLine()).append(": ").append(iss.getMessage()).append("\n");
         }
 
         if (isPreviouslyRefactored) {
@@ -135,25 +354,22 @@ public class CodeAnalyzerService {
         }
 
         promptBuilder.append("\nProvide ONLY the complete refactored code with no explanations. Begin and end with ```java and ```");
+        return promptBuilder.toString();
+    }
 
-        // Ask OpenAI to refactor the code
-        String aiResponse = openAIClient.askModel(promptBuilder.toString());
-
-        // Extract code between ```java and ``` markers
-        int startMarker = aiResponse.indexOf("```java");
-        int endMarker = aiResponse.lastIndexOf("```");
-
-        if (startMarker != -1 && endMarker != -1 && startMarker < endMarker) {
-            String refactoredByAI = aiResponse.substring(startMarker + 7, endMarker).trim();
-            if (!refactoredByAI.isEmpty()) {
-                return refactoredByAI;
-            }
-        }
+    private String extractRefactoredCode(String aiResponse, String astRefactoredSource) {
+        String refactoredByAI = CodeBlocks.extractJava(aiResponse);
+        return refactoredByAI != null ? refactoredByAI : astRefactoredSource;
+    }
 
-        return astRefactoredSource;
+    // Shown in place of suggestions when the model could not be reached
+    static List<String> suggestionsUnavailable(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.warn("AI suggestions unavailable: {}", cause.getMessage(), cause);
+        return List.of("AI suggestions unavailable: " + cause.getMessage());
     }
 
-    private List<String> parseAiSuggestions(String aiResponse) {
+    List<String> parseAiSuggestions(String aiResponse) {
         List<String> suggestions = new ArrayList<>();
 
         try {
@@ -173,13 +389,13 @@ public class CodeAnalyzerService {
                 }
 
                 // Extract numbered suggestions (1. 2. 3. 4.)
-                if (line.matches("^\\d+\\.\\s+\\*\\*.*\\*\\*:.*")) {
+                if (NUMBERED_SUGGESTION.matcher(line).matches()) {
                     // Extract the main suggestion text after the colon
                     String[] parts = line.split(":", 2);
                     if (parts.length > 1) {
                         String suggestion = parts[1].trim();
                         // Remove markdown formatting
-                        suggestion = suggestion.replaceAll("\\*\\*", "").trim();
+                        suggestion = suggestion.replace("**", "").trim();
                         if (!suggestion.isEmpty() && suggestion.length() > 20) {
                             suggestions.add(suggestion);
                         }
@@ -190,7 +406,7 @@ public class CodeAnalyzerService {
                         line.startsWith("Addressing these issues") ||
                         (line.length() > 50 && line.contains("should") &&
                                 !line.startsWith("   ") && !line.contains("```"))) {
-                    String cleaned = line.replaceAll("\\*\\*", "").trim();
+                    String cleaned = line.replace("**", "").trim();
                     if (cleaned.length() > 30) {
                         suggestions.add(cleaned);
                     }
@@ -206,7 +422,7 @@ public class CodeAnalyzerService {
             }
 
         } catch (Exception e) {
-            System.err.println("Error parsing AI suggestions: " + e.getMessage());
+            log.warn("Error parsing AI suggestions: {}", e.getMessage(), e);
             // Fallback suggestions
             suggestions.add("Replace System.out.println with proper logging framework like SLF4J");
             suggestions.add("Address TODO/FIXME comments before production deployment");
@@ -216,4 +432,17 @@ public class CodeAnalyzerService {
 
         return suggestions;
     }
+
+    // State carried from the local stages to the model stage of one request
+    private static final class AnalysisRequest {
+        final AnalysisResult result = new AnalysisResult();
+        RuleProfile profile;
+        String startingSource;
+        boolean isPreviouslyRefactored;
+        List<Issue> issues;
+        ParsedDocument parsed;
+        FixResult fixes;
+        ParsedDocument astRefactored;
+        boolean chunked;
+    }
 }
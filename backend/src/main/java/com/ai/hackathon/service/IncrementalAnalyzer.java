@@ -0,0 +1,278 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.fixes.FixEngine;
+import com.ai.hackathon.model.AnalysisResult;
+import com.ai.hackathon.model.AnalysisTier;
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.rules.ProjectIndex;
+import com.ai.hackathon.rules.RuleProfile;
+import com.ai.hackathon.util.LineDiff;
+import com.ai.hackathon.util.ParsedDocument;
+import com.ai.hackathon.util.UnifiedDiff;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import io.micrometer.observation.Observation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+// Re-reviews a new version of a previously reviewed file. Only the methods and
+// constructors touched by the change are re-scanned and sent to the model; issues,
+// suggestions and refactored code of untouched members are carried over from the base.
+// The refactored output is built on the new version, so deleted and renamed members
+// go and a changed member the model could not refactor keeps the user's edit.
+// Changes outside method/constructor bodies, and a rule profile other than the base's,
+// fall back to a full review.
+@Service
+public class IncrementalAnalyzer {
+
+    @Autowired
+    private CodeAnalyzerService analyzerService;
+
+    @Autowired
+    private ReviewHistory history;
+
+    @Autowired
+    private LlmProvider llmProvider;
+
+    @Autowired
+    private MemberRefactorer memberRefactorer;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Autowired
+    private ProjectIndexService projectIndex;
+
+    @Autowired
+    private RuleProfiles ruleProfiles;
+
+    @Autowired
+    private FixEngine fixEngine;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private Executor analysisExecutor;
+
+    // Exactly one of newSource and diff is expected; diff is a unified diff against the base.
+    // Without a profile name the base's profile is used.
+    public CompletableFuture<AnalysisResult> analyze(String fileName, String baseVersion, String newSource, String diff,
+                                                     String profileName) {
+        AnalysisResult base = history.get(baseVersion);
+        if (base == null) {
+            if (newSource == null) {
+                return CompletableFuture.failedFuture(new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Unknown base version " + baseVersion + "; send the full file"));
+            }
+            return analyzerService.analyzeAsync(fileName, newSource, ruleProfiles.get(profileName));
+        }
+        RuleProfile profile = ruleProfiles.get(profileName != null ? profileName : base.getProfile());
+        String name = fileName != null ? fileName : base.getFileName();
+        Observation observation = analyzerService.startAnalysis("incremental");
+        return CodeAnalyzerService.observed(observation, CompletableFuture
+                .supplyAsync(() -> CodeAnalyzerService.inScope(observation, () -> prepare(name, base, newSource, diff, profile)), analysisExecutor)
+                .thenCompose(delta -> CodeAnalyzerService.inScope(observation, () -> delta == null
+                        ? analyzerService.analyzeAsync(name, resolveSource(base, newSource, diff), profile)
+                        : askModelAndRescore(delta))));
+    }
+
+    private static String resolveSource(AnalysisResult base, String newSource, String diff) {
+        if (newSource != null) return newSource;
+        try {
+            return UnifiedDiff.apply(base.getOriginalSource(), diff);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage(), e);
+        }
+    }
+
+    // Returns null when the change cannot be handled incrementally
+    private Delta prepare(String fileName, AnalysisResult base, String newSource, String diff, RuleProfile profile) {
+        String source = resolveSource(base, newSource, diff);
+        if (base.getIssues() == null || base.getRefactoredSource() == null) return null;
+        // Carried-over issues and scores are only comparable under the same rules
+        String baseProfile = base.getProfile() != null ? base.getProfile() : RuleProfile.DEFAULT;
+        if (!baseProfile.equals(profile.name())) return null;
+
+        ParsedDocument doc = metrics.time(PipelineMetrics.STAGE_PARSE, () -> ParsedDocument.parse(source));
+        if (!doc.isParsed()) return null;
+
+        LineDiff lineDiff = LineDiff.of(base.getOriginalSource(), source);
+        List<CallableDeclaration<?>> allMembers = MemberRefactorer.members(doc.unit());
+        Set<CallableDeclaration<?>> changed = new LinkedHashSet<>();
+        for (LineDiff.Hunk h : lineDiff.hunks()) {
+            // 1-based lines of the new text touched by this hunk; a pure deletion
+            // touches the line it collapsed onto
+            int first = h.newStart + 1;
+            int last = h.newCount == 0 ? first : h.newStart + h.newCount;
+            for (int line = first; line <= last; line++) {
+                CallableDeclaration<?> member = enclosing(allMembers, line);
+                if (member == null) return null;
+                changed.add(member);
+            }
+        }
+
+        Delta delta = new Delta();
+        delta.base = base;
+        delta.profile = profile;
+        delta.doc = doc;
+        delta.members = new ArrayList<>(changed);
+        delta.result.setFileName(fileName);
+        delta.result.setProfile(profile.name());
+        delta.result.setOriginalSource(source);
+        delta.result.setVersionId(ReviewHistory.versionId(fileName, source));
+        delta.result.setReanalyzedMembers(delta.members.stream().map(MemberRefactorer::describe).toList());
+
+        // Carry over issues of untouched lines, then re-scan the changed members only
+        List<Range> dirty = delta.members.stream().map(m -> m.getRange().orElseThrow()).toList();
+        List<Issue> issues = new ArrayList<>();
+        for (Issue iss : base.getIssues()) {
+            int mapped = lineDiff.mapOldLine(iss.getLine() - 1);
+            if (mapped >= 0 && !isDirty(dirty, mapped + 1) && !ProjectIndex.RULE_IDS.contains(iss.getRuleId())) {
+                issues.add(iss.atLine(mapped + 1));
+            }
+        }
+        delta.newIssues = metrics.time(PipelineMetrics.STAGE_HEURISTICS, () -> profile.run(doc, delta.members));
+        issues.addAll(delta.newIssues);
+        issues.addAll(metrics.time(PipelineMetrics.STAGE_CROSS_FILE, () -> profile.crossFile(projectIndex.review(fileName, doc))));
+        issues.sort(Comparator.comparingInt(Issue::getLine));
+        delta.result.setIssues(issues);
+
+        delta.result.setOriginalScore(profile.score(issues));
+
+        delta.spliceTarget = carryOver(fixEngine.apply(doc).document(), delta.members, base);
+        return delta;
+    }
+
+    private CompletableFuture<AnalysisResult> askModelAndRescore(Delta delta) {
+        AnalysisResult result = delta.result;
+        if (delta.members.isEmpty()) {
+            // Same content as the base version
+            result.setAiSuggestions(delta.base.getAiSuggestions());
+            result.setRefactoredSource(delta.base.getRefactoredSource());
+            result.setRefactoredScore(delta.base.getRefactoredScore());
+            result.setTier(delta.base.getTier());
+            history.put(result);
+            return CompletableFuture.completedFuture(result);
+        }
+
+        // The changed members are always refactored by the model
+        result.setTier(AnalysisTier.FULL);
+        CompletableFuture<List<String>> suggestions = delta.newIssues.isEmpty()
+                ? CompletableFuture.completedFuture(List.of())
+                : analyzerService.suggestions(SuggestionCache.KIND_CHANGED_MEMBERS, delta.newIssues,
+                        () -> llmProvider.askModelAsync(buildSuggestionPrompt(delta)));
+        CompletableFuture<ParsedDocument> refactored =
+                memberRefactorer.refactor(delta.spliceTarget.unit(), delta.members, delta.newIssues);
+
+        return suggestions.thenCombineAsync(refactored, (newSuggestions, refactoredDoc) -> {
+            // Suggestions for the changed members first, then the ones still applying elsewhere
+            Set<String> merged = new LinkedHashSet<>(newSuggestions);
+            if (delta.base.getAiSuggestions() != null) merged.addAll(delta.base.getAiSuggestions());
+            result.setAiSuggestions(new ArrayList<>(merged));
+
+            ParsedDocument finalDoc = refactoredDoc != null ? refactoredDoc : delta.spliceTarget;
+            result.setRefactoredSource(finalDoc.source());
+            // No fix applied: the new version's score stands
+            int newScore = finalDoc == delta.doc ? result.getOriginalScore() : metrics.time(PipelineMetrics.STAGE_RESCORE, () -> {
+                List<Issue> refactoredIssues = delta.profile.run(finalDoc);
+                refactoredIssues.addAll(delta.profile.crossFile(projectIndex.check(result.getFileName(), finalDoc)));
+                return delta.profile.score(refactoredIssues);
+            });
+            result.setRefactoredScore(newScore);
+
+            history.put(result);
+            return result;
+        }, analysisExecutor);
+    }
+
+    private static String buildSuggestionPrompt(Delta delta) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("You are a senior Java reviewer. These recently changed methods have the following issues:\n");
+        for (Issue iss : delta.newIssues) {
+            prompt.append("Line ").append(iss.getLine()).append(": ").append(iss.getMessage()).append("\n");
+        }
+        prompt.append("\nProvide concise suggestions to fix each issue, and provide a brief overall summary. Reply in plain text.");
+        return prompt.toString();
+    }
+
+    // The new version with the automatic fixes, where every member that did not change
+    // takes its refactored form from the base, along with the helper methods the model
+    // added in the base's refactoring. Members of the base that are gone from the new
+    // version (deleted, or renamed into a changed member) are not carried over.
+    static ParsedDocument carryOver(ParsedDocument fixed, List<CallableDeclaration<?>> changed, AnalysisResult base) {
+        ParsedDocument refactoredBase = ParsedDocument.parse(base.getRefactoredSource());
+        ParsedDocument originalBase = ParsedDocument.parse(base.getOriginalSource());
+        if (!refactoredBase.isParsed() || !originalBase.isParsed()) return fixed;
+
+        Set<String> changedKeys = changed.stream().map(MemberRefactorer::describe).collect(Collectors.toSet());
+        Set<String> baseKeys = MemberRefactorer.members(originalBase.unit()).stream()
+                .map(MemberRefactorer::describe).collect(Collectors.toSet());
+        CompilationUnit copy = fixed.unit().clone();
+        Map<String, CallableDeclaration<?>> current = new HashMap<>();
+        MemberRefactorer.members(copy).forEach(m -> current.put(MemberRefactorer.describe(m), m));
+        boolean carried = false;
+        for (CallableDeclaration<?> refactored : MemberRefactorer.members(refactoredBase.unit())) {
+            String key = MemberRefactorer.describe(refactored);
+            if (changedKeys.contains(key)) continue;
+            CallableDeclaration<?> member = current.get(key);
+            if (member != null) {
+                if (!member.equals(refactored)) {
+                    member.replace(refactored.clone());
+                    carried = true;
+                }
+            } else if (!baseKeys.contains(key)) {
+                TypeDeclaration<?> type = refactored.findAncestor(TypeDeclaration.class)
+                        .flatMap(t -> copy.findFirst(TypeDeclaration.class, c -> c.getNameAsString().equals(t.getNameAsString())))
+                        .orElse(null);
+                if (type != null) {
+                    type.addMember(refactored.clone());
+                    carried = true;
+                }
+            }
+        }
+        if (!carried) return fixed;
+        ParsedDocument result = ParsedDocument.parse(copy.toString());
+        return result.isParsed() ? result : fixed;
+    }
+
+    private static CallableDeclaration<?> enclosing(List<CallableDeclaration<?>> members, int line) {
+        for (CallableDeclaration<?> member : members) {
+            Range r = member.getRange().orElse(null);
+            if (r != null && r.begin.line <= line && line <= r.end.line) return member;
+        }
+        return null;
+    }
+
+    private static boolean isDirty(List<Range> dirty, int line) {
+        for (Range r : dirty) {
+            if (r.begin.line <= line && line <= r.end.line) return true;
+        }
+        return false;
+    }
+
+    // State carried from the local stage to the model stage of one incremental review
+    private static final class Delta {
+        final AnalysisResult result = new AnalysisResult();
+        AnalysisResult base;
+        RuleProfile profile;
+        ParsedDocument doc;
+        List<CallableDeclaration<?>> members;
+        List<Issue> newIssues;
+        ParsedDocument spliceTarget;
+    }
+}
@@ -0,0 +1,294 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.AnalysisJob;
+import com.ai.hackathon.model.AnalysisResult;
+import com.ai.hackathon.model.AnalysisTier;
+import com.ai.hackathon.model.JobStatus;
+import com.ai.hackathon.rules.RuleProfile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Queued reviews: POST /api/jobs returns at once and a fixed set of workers drains two
+// bounded priority queues, so throughput is set by worker counts rather than by how
+// long a client can hold a request open. Heuristics-only jobs have their own lane and
+// workers and never wait behind jobs that call the model. Jobs left queued or running
+// at shutdown are queued again on the next start when JobStore persists to disk.
+@Service
+public class JobService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+
+    @Autowired
+    private CodeAnalyzerService analyzerService;
+
+    @Autowired
+    private JobStore store;
+
+    @Autowired
+    private RuleProfiles ruleProfiles;
+
+    @Value("${jobs.workers:4}")
+    private int workers;
+
+    @Value("${jobs.fast-workers:2}")
+    private int fastWorkers;
+
+    @Value("${jobs.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // How long finished jobs and their results are kept
+    @Value("${jobs.ttl:24h}")
+    private Duration ttl;
+
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<AnalysisJob>>> listeners = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean stopped;
+    private volatile long lastPrune = System.nanoTime();
+
+    private Lane fullLane;
+    private Lane fastLane;
+
+    private record Ticket(String jobId, int priority, long sequence) {
+        // Higher priority first, then first come first served
+        static final Comparator<Ticket> ORDER = Comparator.comparingInt(Ticket::priority).reversed()
+                .thenComparingLong(Ticket::sequence);
+    }
+
+    private static final class Lane {
+        final String name;
+        final int capacity;
+        final PriorityBlockingQueue<Ticket> queue = new PriorityBlockingQueue<>(16, Ticket.ORDER);
+
+        Lane(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+        }
+
+        synchronized boolean offer(Ticket ticket, boolean force) {
+            if (!force && queue.size() >= capacity) return false;
+            return queue.offer(ticket);
+        }
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        fullLane = new Lane(AnalysisJob.MODE_FULL, queueCapacity);
+        fastLane = new Lane(AnalysisJob.MODE_HEURISTICS, queueCapacity);
+        recover();
+        startWorkers(fullLane, workers);
+        startWorkers(fastLane, fastWorkers);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopped = true;
+        threads.forEach(Thread::interrupt);
+    }
+
+    // The profile is looked up again when the job runs, so a reload in between applies
+    public AnalysisJob submit(String fileName, String source, String mode, String profile, int priority) {
+        pruneFinished();
+        AnalysisJob job = new AnalysisJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setFileName(fileName);
+        job.setMode(mode);
+        job.setProfile(profile);
+        job.setPriority(priority);
+        job.setStatus(JobStatus.QUEUED);
+        job.setSubmittedAt(Instant.now());
+
+        Lane lane = laneOf(job);
+        if (lane.queue.size() >= lane.capacity) throw queueFull(lane);
+        store.saveSource(job.getId(), source);
+        store.save(job);
+        jobs.put(job.getId(), job);
+        if (!lane.offer(new Ticket(job.getId(), priority, sequence.incrementAndGet()), false)) {
+            jobs.remove(job.getId());
+            store.delete(job.getId());
+            throw queueFull(lane);
+        }
+        return job;
+    }
+
+    public AnalysisJob get(String id) {
+        return id == null ? null : jobs.get(id);
+    }
+
+    // Called with the job on every status change until it finishes, and at once if it
+    // already has; returns null for unknown jobs
+    public AnalysisJob subscribe(String id, Consumer<AnalysisJob> listener) {
+        AnalysisJob job = get(id);
+        if (job == null) return null;
+        listeners.computeIfAbsent(id, k -> new CopyOnWriteArrayList<>()).add(listener);
+        if (job.getStatus().isFinished()) notifyListeners(job);
+        return job;
+    }
+
+    private void startWorkers(Lane lane, int count) {
+        for (int i = 1; i <= count; i++) {
+            Thread t = new Thread(() -> drain(lane), "job-" + lane.name + "-" + i);
+            t.setDaemon(true);
+            threads.add(t);
+            t.start();
+        }
+    }
+
+    private void drain(Lane lane) {
+        while (!stopped) {
+            try {
+                AnalysisJob job = jobs.get(lane.queue.take().jobId());
+                if (job != null) run(job);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void run(AnalysisJob job) throws InterruptedException {
+        String source = store.loadSource(job.getId());
+        if (source == null) {
+            finish(job, null, "Source of the job is no longer available");
+            return;
+        }
+        update(job, j -> {
+            j.setStatus(JobStatus.RUNNING);
+            j.setStartedAt(Instant.now());
+        });
+        RuleProfile profile;
+        try {
+            profile = ruleProfiles.get(job.getProfile());
+        } catch (ResponseStatusException e) {
+            // removed from the profiles file since the job was submitted
+            finish(job, null, e.getReason());
+            return;
+        }
+        try {
+            CompletableFuture<AnalysisResult> analysis = AnalysisJob.MODE_HEURISTICS.equals(job.getMode())
+                    ? analyzerService.analyzeHeuristics(job.getFileName(), source, profile)
+                    : analyzerService.analyzeAsync(job.getFileName(), source, profile, AnalysisTier.FULL);
+            finish(job, analysis.get(), null);
+        } catch (ExecutionException e) {
+            finish(job, null, String.valueOf(e.getCause().getMessage()));
+        } catch (RuntimeException e) {
+            // a rejected task or a cancelled analysis fails the job, not the worker
+            finish(job, null, String.valueOf(e.getMessage()));
+        }
+        // On interrupt (shutdown) the job stays RUNNING on disk and is queued again on restart
+    }
+
+    private void finish(AnalysisJob job, AnalysisResult result, String error) {
+        update(job, j -> {
+            j.setStatus(error == null ? JobStatus.DONE : JobStatus.FAILED);
+            j.setResult(result);
+            j.setError(error);
+            j.setFinishedAt(Instant.now());
+        });
+        store.deleteSource(job.getId());
+    }
+
+    private void update(AnalysisJob job, Consumer<AnalysisJob> change) {
+        synchronized (job) {
+            change.accept(job);
+        }
+        store.save(job);
+        notifyListeners(job);
+    }
+
+    private void notifyListeners(AnalysisJob job) {
+        List<Consumer<AnalysisJob>> subscribed = job.getStatus().isFinished()
+                ? listeners.remove(job.getId())
+                : listeners.get(job.getId());
+        if (subscribed == null) return;
+        for (Consumer<AnalysisJob> listener : subscribed) {
+            try {
+                listener.accept(job);
+            } catch (RuntimeException e) {
+                // a failing subscriber must not fail the job
+            }
+        }
+    }
+
+    // Jobs from the last run: finished ones are kept until they expire, the rest go back
+    // into their lane in submission order
+    private void recover() throws IOException {
+        List<AnalysisJob> stored = store.loadAll();
+        stored.sort(Comparator.comparing(AnalysisJob::getSubmittedAt, Comparator.nullsFirst(Comparator.naturalOrder())));
+        int requeued = 0;
+        for (AnalysisJob job : stored) {
+            if (job.getStatus().isFinished()) {
+                if (isExpired(job)) {
+                    store.delete(job.getId());
+                } else {
+                    jobs.put(job.getId(), job);
+                }
+                continue;
+            }
+            job.setStatus(JobStatus.QUEUED);
+            job.setStartedAt(null);
+            jobs.put(job.getId(), job);
+            laneOf(job).offer(new Ticket(job.getId(), job.getPriority(), sequence.incrementAndGet()), true);
+            requeued++;
+        }
+        if (requeued > 0) {
+            log.info("Re-queued {} unfinished review job(s)", requeued);
+        }
+    }
+
+    // At most once a minute, piggybacked on submissions
+    private void pruneFinished() {
+        long now = System.nanoTime();
+        if (now - lastPrune < 60_000_000_000L) return;
+        lastPrune = now;
+        jobs.values().removeIf(job -> {
+            if (!job.getStatus().isFinished() || !isExpired(job)) return false;
+            store.delete(job.getId());
+            return true;
+        });
+    }
+
+    private boolean isExpired(AnalysisJob job) {
+        return job.getFinishedAt() != null && job.getFinishedAt().plus(ttl).isBefore(Instant.now());
+    }
+
+    private Lane laneOf(AnalysisJob job) {
+        return AnalysisJob.MODE_HEURISTICS.equals(job.getMode()) ? fastLane : fullLane;
+    }
+
+    private static ResponseStatusException queueFull(Lane lane) {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The " + lane.name + " job queue is full; retry later");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jobs.queued", this, s -> s.fullLane.queue.size()).tag("lane", AnalysisJob.MODE_FULL).register(registry);
+        Gauge.builder("jobs.queued", this, s -> s.fastLane.queue.size()).tag("lane", AnalysisJob.MODE_HEURISTICS).register(registry);
+    }
+}
@@ -0,0 +1,137 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.AnalysisJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Job state for JobService. With jobs.dir set, every job is a <id>.json file and waiting
+// jobs keep their source in <id>.src, so queued work survives a restart; both are
+// written aside and renamed into place. Without a directory everything stays in memory.
+@Component
+public class JobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JobStore.class);
+
+    // Empty keeps jobs in memory only
+    @Value("${jobs.dir:}")
+    private String dir;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Path jobDir;
+    private final Map<String, String> memorySources = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        if (dir != null && !dir.isBlank()) {
+            jobDir = Files.createDirectories(Path.of(dir));
+        }
+    }
+
+    public boolean isPersistent() {
+        return jobDir != null;
+    }
+
+    public void save(AnalysisJob job) {
+        if (jobDir == null) return;
+        try {
+            byte[] json;
+            synchronized (job) {
+                json = objectMapper.writeValueAsBytes(job);
+            }
+            write(job.getId() + ".json", json);
+        } catch (IOException e) {
+            log.warn("Could not persist job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    // Fails the submission when the source cannot be stored; the job would be lost otherwise
+    public void saveSource(String id, String source) {
+        if (jobDir == null) {
+            memorySources.put(id, source);
+            return;
+        }
+        try {
+            write(id + ".src", source.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store source of job " + id, e);
+        }
+    }
+
+    // null when the source is gone
+    public String loadSource(String id) {
+        if (jobDir == null) return memorySources.get(id);
+        try {
+            return Files.readString(jobDir.resolve(id + ".src"), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void deleteSource(String id) {
+        if (jobDir == null) {
+            memorySources.remove(id);
+            return;
+        }
+        deleteQuietly(jobDir.resolve(id + ".src"));
+    }
+
+    public void delete(String id) {
+        deleteSource(id);
+        if (jobDir != null) deleteQuietly(jobDir.resolve(id + ".json"));
+    }
+
+    // Every job found on disk; unreadable and half-written files are removed
+    public List<AnalysisJob> loadAll() throws IOException {
+        List<AnalysisJob> jobs = new ArrayList<>();
+        if (jobDir == null) return jobs;
+        try (Stream<Path> files = Files.list(jobDir)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                String name = f.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    deleteQuietly(f);
+                } else if (name.endsWith(".json")) {
+                    try {
+                        jobs.add(objectMapper.readValue(f.toFile(), AnalysisJob.class));
+                    } catch (IOException e) {
+                        log.warn("Dropping unreadable job file {}: {}", name, e.getMessage());
+                        deleteQuietly(f);
+                    }
+                }
+            }
+        }
+        return jobs;
+    }
+
+    private void write(String name, byte[] content) throws IOException {
+        Path tmp = Files.createTempFile(jobDir, name, ".tmp");
+        Files.write(tmp, content);
+        Files.move(tmp, jobDir.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+}
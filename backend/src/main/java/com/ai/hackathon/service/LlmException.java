@@ -0,0 +1,32 @@
+package com.ai.hackathon.service;
+
+import java.io.IOException;
+
+// A model call that produced no answer. status is the HTTP status, or -1 when the
+// request never got one (transport error, open circuit, missing configuration).
+public class LlmException extends RuntimeException {
+
+    private final int status;
+    private final boolean retryable;
+
+    public LlmException(int status, String message, boolean retryable) {
+        super(message);
+        this.status = status;
+        this.retryable = retryable;
+    }
+
+    // Transport failures; I/O errors such as timeouts and resets are worth retrying
+    public LlmException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = -1;
+        this.retryable = cause instanceof IOException;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ai.hackathon.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// A chat model the analysis pipeline can ask. When no answer is available the
+// returned futures complete exceptionally, normally with an LlmException; callers
+// fall back to their local results instead of treating an error text as an answer.
+public interface LlmProvider {
+
+    int DEFAULT_MAX_TOKENS = 1000;
+
+    String model();
+
+    CompletableFuture<String> askModelAsync(String prompt, int maxTokens);
+
+    // Like askModelAsync, passing each piece of the answer to onToken as it is generated
+    CompletableFuture<String> streamModelAsync(String prompt, Consumer<String> onToken);
+
+    default CompletableFuture<String> askModelAsync(String prompt) {
+        return askModelAsync(prompt, DEFAULT_MAX_TOKENS);
+    }
+
+    default String askModel(String prompt) {
+        return askModelAsync(prompt).join();
+    }
+}
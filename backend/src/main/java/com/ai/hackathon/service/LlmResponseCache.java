@@ -0,0 +1,207 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.util.Digests;
+import com.ai.hackathon.util.LruCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// Content-addressed cache of model completions. Entries are keyed by the SHA-256 of
+// model, sampling parameters and prompt; an optional directory keeps them across restarts.
+// The directory is pruned at startup and every prune-interval: expired entries go, then
+// the oldest ones until at most disk-max-entries are left.
+@Component
+public class LlmResponseCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    @Value("${openai.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${openai.cache.ttl:24h}")
+    private Duration ttl;
+
+    // Empty disables the disk tier
+    @Value("${openai.cache.dir:}")
+    private String dir;
+
+    @Value("${openai.cache.disk-max-entries:10000}")
+    private int diskMaxEntries;
+
+    @Value("${openai.cache.prune-interval:10m}")
+    private Duration pruneInterval;
+
+    private LruCache<String, String> memory;
+    private Path diskDir;
+
+    private ScheduledExecutorService pruner;
+
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder diskEvictions = new LongAdder();
+
+    @PostConstruct
+    void init() throws IOException {
+        memory = new LruCache<>(maxEntries, ttl);
+        if (dir != null && !dir.isBlank()) {
+            diskDir = Path.of(dir);
+            Files.createDirectories(diskDir);
+            prune();
+            pruner = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "llm-cache-prune");
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(1, pruneInterval.toMillis());
+            pruner.scheduleWithFixedDelay(this::pruneQuietly, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pruner != null) pruner.shutdownNow();
+    }
+
+    public String key(String model, int maxTokens, double temperature, String prompt) {
+        return Digests.sha256Hex(model, Integer.toString(maxTokens), Double.toString(temperature), prompt);
+    }
+
+    public String get(String key) {
+        String value = memory.get(key);
+        if (value == null && diskDir != null) {
+            value = readFromDisk(key);
+            if (value != null) {
+                diskHits.increment();
+                memory.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void put(String key, String value) {
+        memory.put(key, value);
+        if (diskDir != null) {
+            writeToDisk(key, value);
+        }
+    }
+
+    // Bound by Spring Boot to the application's MeterRegistry
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("llm.cache.requests", this, LlmResponseCache::hits).tag("result", "hit").register(registry);
+        FunctionCounter.builder("llm.cache.requests", this, LlmResponseCache::misses).tag("result", "miss").register(registry);
+        FunctionCounter.builder("llm.cache.disk.hits", this, LlmResponseCache::diskHits).register(registry);
+        FunctionCounter.builder("llm.cache.disk.evictions", this, LlmResponseCache::diskEvictions).register(registry);
+        FunctionCounter.builder("llm.cache.evictions", this, LlmResponseCache::evictions).register(registry);
+        Gauge.builder("llm.cache.size", this, LlmResponseCache::size).register(registry);
+    }
+
+    public long hits() { return memory.hits(); }
+    public long misses() { return memory.misses(); }
+    public long evictions() { return memory.evictions(); }
+    public long diskHits() { return diskHits.sum(); }
+    public long diskEvictions() { return diskEvictions.sum(); }
+    public int size() { return memory.size(); }
+
+    private String readFromDisk(String key) {
+        Path file = diskDir.resolve(key);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (isExpired(file)) {
+                return null;
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return StandardCharsets.UTF_8.decode(buf).toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, String value) {
+        try {
+            // Write aside and rename so readers never see a half-written entry
+            Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+            Files.writeString(tmp, value, StandardCharsets.UTF_8);
+            Files.move(tmp, diskDir.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not persist LLM cache entry: {}", e.getMessage());
+        }
+    }
+
+    private boolean isExpired(Path file) throws IOException {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) return false;
+        FileTime modified = Files.getLastModifiedTime(file);
+        return modified.toMillis() + ttl.toMillis() < System.currentTimeMillis();
+    }
+
+    private void pruneQuietly() {
+        try {
+            prune();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not prune the LLM cache directory: {}", e.getMessage());
+        }
+    }
+
+    // Leftover temp files and expired entries, then the least recently written entries
+    // over the cap. A temp file younger than a minute may still be being written.
+    void prune() throws IOException {
+        List<Entry> kept = new ArrayList<>();
+        long staleTmp = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+        try (Stream<Path> files = Files.list(diskDir)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                try {
+                    long modified = Files.getLastModifiedTime(f).toMillis();
+                    if (f.getFileName().toString().endsWith(".tmp")) {
+                        if (modified < staleTmp) Files.deleteIfExists(f);
+                    } else if (isExpired(f)) {
+                        delete(f);
+                    } else {
+                        kept.add(new Entry(f, modified));
+                    }
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+        }
+        int excess = kept.size() - Math.max(0, diskMaxEntries);
+        if (excess <= 0) return;
+        kept.sort(Comparator.comparingLong(Entry::modified));
+        for (int i = 0; i < excess; i++) {
+            try {
+                delete(kept.get(i).file());
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+    }
+
+    private void delete(Path file) throws IOException {
+        if (Files.deleteIfExists(file)) diskEvictions.increment();
+    }
+
+    private record Entry(Path file, long modified) {}
+}
@@ -0,0 +1,206 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.fixes.FixEngine;
+import com.ai.hackathon.util.AsyncLimiter;
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Offline stand-in for the model (llm.provider=local), for load tests and sites without
+// network access. Answers are derived from the prompt alone and are the same every
+// time: code in a prompt comes back with the automatic fixes applied, and a list of
+// issues comes back as one numbered suggestion per kind of issue. Latency and failures
+// are synthetic and configurable; requests share a concurrency cap like the real client.
+@Component
+@ConditionalOnProperty(name = "llm.provider", havingValue = "local")
+public class LocalLlmProvider implements LlmProvider {
+
+    private static final String MODEL = "local";
+    private static final String WRAPPER = "__LocalModelMembers";
+
+    // "Line 12: message" and "- Line 12: message" lines of the review and refactor prompts
+    private static final Pattern ISSUE_LINE = Pattern.compile("^(?:- )?Line (\\d+): (.+)$", Pattern.MULTILINE);
+
+    // Delay of every answer, plus a uniformly random share of jitter
+    @Value("${llm.local.latency:0ms}")
+    private Duration latency;
+
+    @Value("${llm.local.jitter:0ms}")
+    private Duration jitter;
+
+    // Share of requests (0..1) that fail with a retryable 503, after the delay
+    @Value("${llm.local.error-rate:0}")
+    private double errorRate;
+
+    @Value("${llm.local.max-concurrent-requests:${openai.max-concurrent-requests:8}}")
+    private int maxConcurrentRequests;
+
+    @Autowired
+    private FixEngine fixEngine;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObservationRegistry observations;
+
+    private AsyncLimiter limiter;
+
+    @PostConstruct
+    void init() {
+        limiter = new AsyncLimiter(maxConcurrentRequests);
+        Gauge.builder("llm.requests.active", limiter, AsyncLimiter::running).register(meterRegistry);
+        Gauge.builder("llm.requests.queued", limiter, AsyncLimiter::queued).register(meterRegistry);
+    }
+
+    @Override
+    public String model() {
+        return MODEL;
+    }
+
+    @Override
+    public CompletableFuture<String> askModelAsync(String prompt, int maxTokens) {
+        return observed(observe(false), limiter.submit(() -> answer(prompt)));
+    }
+
+    // The answer arrives in pieces of a few words once the delay is over
+    @Override
+    public CompletableFuture<String> streamModelAsync(String prompt, Consumer<String> onToken) {
+        return observed(observe(true), limiter.submit(() -> answer(prompt).thenApply(content -> {
+            for (int i = 0; i < content.length(); ) {
+                int next = Math.min(content.length(), i + 16);
+                onToken.accept(content.substring(i, next));
+                i = next;
+            }
+            return content;
+        })));
+    }
+
+    // Computed right away; completes after the synthetic delay, without holding a thread
+    private CompletableFuture<String> answer(String prompt) {
+        metrics.recordPromptSize(MODEL, prompt.getBytes(StandardCharsets.UTF_8).length);
+        String content = respond(prompt);
+        boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+        long delay = latency.toNanos() + (jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1));
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Runnable done = () -> {
+            if (fail) {
+                result.completeExceptionally(new LlmException(503, "Injected failure (llm.local.error-rate)", true));
+            } else {
+                metrics.recordResponseSize(MODEL, content.getBytes(StandardCharsets.UTF_8).length);
+                result.complete(content);
+            }
+        };
+        if (delay > 0) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(done);
+        } else {
+            done.run();
+        }
+        return result;
+    }
+
+    // The prompts end by asking for an answer "with ```java and ```", so the code is what
+    // lies between the first ```java and the next fence
+    private String respond(String prompt) {
+        int start = prompt.indexOf("```java");
+        int end = start < 0 ? -1 : prompt.indexOf("```", start + 7);
+        if (end < 0) return suggest(prompt);
+        return "```java\n" + refactor(prompt.substring(start + 7, end).trim()) + "\n```";
+    }
+
+    // A whole file is fixed as it is; the methods of a chunk prompt are fixed inside a
+    // wrapper class and only they come back, without the fields the fixes would add
+    private String refactor(String code) {
+        ParsedDocument file = ParsedDocument.parse(code);
+        if (file.isParsed() && !file.unit().getTypes().isEmpty()) {
+            return fixEngine.apply(file).document().source();
+        }
+        ParsedDocument wrapped = ParsedDocument.parse("class " + WRAPPER + " {\n" + code + "\n}");
+        if (!wrapped.isParsed() || wrapped.unit().getTypes().isEmpty()) return code;
+        StringBuilder members = new StringBuilder();
+        for (BodyDeclaration<?> member : fixEngine.apply(wrapped).document().unit().getType(0).getMembers()) {
+            if (!member.isCallableDeclaration()) continue;
+            // The prompt's "// in class X" headers are not part of the answer
+            member.getComment().filter(c -> c.getContent().trim().startsWith("in class ")).ifPresent(c -> member.removeComment());
+            if (members.length() > 0) members.append("\n\n");
+            members.append(member);
+        }
+        return members.toString();
+    }
+
+    // One "N. **Issue**: message (lines ...)" line per distinct message, in order of first
+    // appearance, then a summary line
+    private static String suggest(String prompt) {
+        Map<String, List<String>> linesByMessage = new LinkedHashMap<>();
+        Matcher m = ISSUE_LINE.matcher(prompt);
+        while (m.find()) {
+            linesByMessage.computeIfAbsent(m.group(2).trim(), k -> new ArrayList<>()).add(m.group(1));
+        }
+        StringBuilder answer = new StringBuilder();
+        int n = 0;
+        for (Map.Entry<String, List<String>> e : linesByMessage.entrySet()) {
+            String message = e.getKey();
+            // Rule messages read "what — what to do instead"; the title ends at the first colon
+            int dash = message.indexOf(" — ");
+            String title = (dash > 0 ? message.substring(0, dash) : message).replace(':', ' ').replace("**", "");
+            answer.append(++n).append(". **").append(title).append("**: ").append(message)
+                    .append(e.getValue().size() == 1 ? " (line " : " (lines ")
+                    .append(String.join(", ", e.getValue())).append(")\n");
+        }
+        answer.append('\n');
+        if (n == 0) {
+            answer.append("The code contains no reported issues; no changes are needed beyond regular review.");
+        } else {
+            answer.append("The code contains ").append(n).append(n == 1 ? " kind of issue" : " kinds of issues")
+                    .append(" that should be addressed before release.");
+        }
+        return answer.toString();
+    }
+
+    // The same llm.request observation as OpenAIClient, tagged model=local
+    private Observation observe(boolean stream) {
+        return Observation.createNotStarted("llm.request", observations)
+                .contextualName("llm " + MODEL)
+                .lowCardinalityKeyValue("model", MODEL)
+                .lowCardinalityKeyValue("stream", Boolean.toString(stream))
+                .lowCardinalityKeyValue("status", "200")
+                .start();
+    }
+
+    private static CompletableFuture<String> observed(Observation observation, CompletableFuture<String> answer) {
+        return answer.whenComplete((content, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                int status = cause instanceof LlmException ? ((LlmException) cause).getStatus() : -1;
+                observation.lowCardinalityKeyValue("status", status > 0 ? Integer.toString(status) : "error");
+                observation.error(cause);
+            }
+            observation.stop();
+        });
+    }
+}
@@ -0,0 +1,218 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.util.CodeBlocks;
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Refactors individual methods/constructors with the model instead of the whole file,
+// fanning out in token-budgeted chunks and splicing the answers into an existing tree by signature.
+@Component
+public class MemberRefactorer {
+
+    private static final String WRAPPER = "__RefactoredMembers";
+
+    @Autowired
+    private LlmProvider llmProvider;
+
+    // Budget for the code sent in one prompt
+    @Value("${refactor.chunk.max-input-tokens:2500}")
+    private int chunkInputTokens;
+
+    // Methods and constructors declared directly in a type (not in anonymous/local classes)
+    public static List<CallableDeclaration<?>> members(CompilationUnit cu) {
+        return cu.findAll(CallableDeclaration.class, c -> c.getParentNode().filter(p -> p instanceof TypeDeclaration).isPresent())
+                .stream().<CallableDeclaration<?>>map(c -> c).toList();
+    }
+
+    public static String describe(CallableDeclaration<?> member) {
+        return typeName(member) + "." + member.getSignature().asString();
+    }
+
+    // Splits the members into chunks within the input token budget, asks the model for
+    // every chunk in parallel and returns a copy of target with all answers spliced in.
+    // A chunk whose answer is unusable keeps target's version of its members, so target
+    // should already hold the current version of every member asked about; null is
+    // returned if no chunk could be used or the stitched tree does not re-parse.
+    public CompletableFuture<ParsedDocument> refactor(CompilationUnit target, List<CallableDeclaration<?>> members,
+                                                      List<Issue> issues) {
+        List<Chunk> chunks = plan(members, issues);
+        List<CompletableFuture<List<BodyDeclaration<?>>>> answers = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            answers.add(llmProvider.askModelAsync(buildPrompt(chunk), chunk.maxTokens())
+                    .handle((resp, e) -> e != null ? null : parseAnswer(resp)));
+        }
+        return CompletableFuture.allOf(answers.toArray(new CompletableFuture[0]))
+                .thenApply(v -> stitch(target, chunks, answers.stream().map(CompletableFuture::join).toList()));
+    }
+
+    // Greedily packs members in source order; a member larger than the budget gets a chunk of its own
+    private List<Chunk> plan(List<CallableDeclaration<?>> members, List<Issue> issues) {
+        List<Chunk> chunks = new ArrayList<>();
+        Chunk current = null;
+        for (CallableDeclaration<?> member : members) {
+            String text = member.toString();
+            int tokens = estimateTokens(text);
+            if (current == null || (current.tokens > 0 && current.tokens + tokens > chunkInputTokens)) {
+                current = new Chunk();
+                chunks.add(current);
+            }
+            current.members.add(member);
+            current.texts.add(text);
+            current.tokens += tokens;
+        }
+
+        // Each issue goes to the chunk holding its line; issues outside every member go to the first chunk
+        for (Issue iss : issues) {
+            Chunk owner = chunks.isEmpty() ? null : chunks.get(0);
+            for (Chunk chunk : chunks) {
+                if (chunk.covers(iss.getLine())) {
+                    owner = chunk;
+                    break;
+                }
+            }
+            if (owner != null) owner.issues.add(iss);
+        }
+        return chunks;
+    }
+
+    private String buildPrompt(Chunk chunk) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("You are a senior Java developer tasked with refactoring code. ");
+        prompt.append("Below are selected methods of a Java file. Refactor only these members ");
+        prompt.append("and keep each name and parameter list unchanged.\n\n```java\n");
+        for (int i = 0; i < chunk.members.size(); i++) {
+            prompt.append("// in class ").append(typeName(chunk.members.get(i))).append("\n");
+            prompt.append(chunk.texts.get(i)).append("\n\n");
+        }
+        prompt.append("```\n\n");
+        if (!chunk.issues.isEmpty()) {
+            prompt.append("Fix these issues found by static analysis:\n");
+            for (Issue iss : chunk.issues) {
+                prompt.append("- Line ").append(iss.getLine()).append(": ").append(iss.getMessage()).append("\n");
+            }
+        }
+        prompt.append("\nProvide ONLY the refactored members, without an enclosing class and with no explanations. ");
+        prompt.append("Begin and end with ```java and ```");
+        return prompt.toString();
+    }
+
+    private static List<BodyDeclaration<?>> parseAnswer(String aiResponse) {
+        String code = CodeBlocks.extractJava(aiResponse);
+        if (code == null) return null;
+        ParsedDocument answer = ParsedDocument.parse("class " + WRAPPER + " {\n" + code + "\n}");
+        if (!answer.isParsed() || answer.unit().getTypes().isEmpty()) return null;
+        return answer.unit().getType(0).getMembers();
+    }
+
+    private ParsedDocument stitch(CompilationUnit target, List<Chunk> chunks, List<List<BodyDeclaration<?>>> answers) {
+        CompilationUnit copy = target.clone();
+        boolean spliced = false;
+        for (int i = 0; i < chunks.size(); i++) {
+            List<BodyDeclaration<?>> answer = answers.get(i);
+            if (answer != null && splice(copy, chunks.get(i).members, answer)) {
+                spliced = true;
+            }
+        }
+        if (!spliced) return null;
+
+        // The stitched tree must print to valid Java
+        ParsedDocument result = ParsedDocument.parse(copy.toString());
+        return result.isParsed() ? result : null;
+    }
+
+    static boolean splice(CompilationUnit copy, List<CallableDeclaration<?>> members,
+                                  List<BodyDeclaration<?>> answer) {
+        // Which type each requested member belongs to, by signature
+        Map<String, String> typeBySignature = new HashMap<>();
+        for (CallableDeclaration<?> member : members) {
+            typeBySignature.put(member.getSignature().asString(), typeName(member));
+        }
+        String defaultType = members.isEmpty() ? null : typeName(members.get(0));
+
+        // Resolve every target type before touching the tree so a bad chunk leaves it unchanged
+        List<TypeDeclaration<?>> types = new ArrayList<>();
+        for (BodyDeclaration<?> decl : answer) {
+            String typeName = decl instanceof CallableDeclaration
+                    ? typeBySignature.getOrDefault(((CallableDeclaration<?>) decl).getSignature().asString(), defaultType)
+                    : defaultType;
+            TypeDeclaration<?> type = findType(copy, typeName);
+            if (type == null) return false;
+            types.add(type);
+        }
+
+        for (int i = 0; i < answer.size(); i++) {
+            BodyDeclaration<?> decl = answer.get(i);
+            TypeDeclaration<?> type = types.get(i);
+            BodyDeclaration<?> existing = decl instanceof CallableDeclaration
+                    ? findMember(type, ((CallableDeclaration<?>) decl).getSignature().asString())
+                    : null;
+            if (existing != null) {
+                existing.replace(decl.clone());
+            } else {
+                // helper methods or fields the model introduced
+                type.addMember(decl.clone());
+            }
+        }
+        return true;
+    }
+
+    // Rough token count for code (about 4 characters per token)
+    static int estimateTokens(String text) {
+        return text.length() / 4 + 1;
+    }
+
+    private static String typeName(Node member) {
+        return member.findAncestor(TypeDeclaration.class).map(TypeDeclaration::getNameAsString).orElse("");
+    }
+
+    private static TypeDeclaration<?> findType(CompilationUnit cu, String name) {
+        if (name == null) return null;
+        return cu.findFirst(TypeDeclaration.class, t -> t.getNameAsString().equals(name)).orElse(null);
+    }
+
+    private static BodyDeclaration<?> findMember(TypeDeclaration<?> type, String signature) {
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof CallableDeclaration
+                    && ((CallableDeclaration<?>) member).getSignature().asString().equals(signature)) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    private static class Chunk {
+        final List<CallableDeclaration<?>> members = new ArrayList<>();
+        final List<String> texts = new ArrayList<>();
+        final List<Issue> issues = new ArrayList<>();
+        int tokens;
+
+        boolean covers(int line) {
+            for (CallableDeclaration<?> member : members) {
+                if (member.getBegin().isPresent() && member.getEnd().isPresent()
+                        && line >= member.getBegin().get().line && line <= member.getEnd().get().line) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Room for the rewritten members plus some growth
+        int maxTokens() {
+            return tokens + tokens / 2 + 200;
+        }
+    }
+}
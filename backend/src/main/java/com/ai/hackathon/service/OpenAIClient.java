@@ -1,25 +1,150 @@
 package com.ai.hackathon.service;
 
+import com.ai.hackathon.util.AsyncLimiter;
+import com.ai.hackathon.util.Backoff;
+import com.ai.hackathon.util.CircuitBreaker;
+import com.ai.hackathon.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+// OpenAI-compatible chat completions provider. Every request goes through the same
+// transport policy: a token bucket fed by the server's rate-limit headers, a cap on
+// requests in flight, retries with jittered exponential backoff on 429/5xx/transport
+// errors, a circuit breaker, and optionally a hedged second request for slow answers.
+// The default provider; llm.provider=local replaces it with LocalLlmProvider.
 @Component
-public class OpenAIClient {
+@ConditionalOnProperty(name = "llm.provider", havingValue = "openai", matchIfMissing = true)
+public class OpenAIClient implements LlmProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenAIClient.class);
+
+    private static final double TEMPERATURE = 0.7;
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
 
     @Value("${openai.api.key:}")
     private String openAiKeyFromProps;
 
+    // Any OpenAI-compatible endpoint, e.g. a local replay stub for load tests
+    @Value("${openai.base-url:https://api.openai.com/v1}")
+    private String baseUrl;
+
+    @Value("${openai.model:gpt-4o-mini}")
+    private String model;
+
+    @Value("${openai.request-timeout:60s}")
+    private Duration requestTimeout;
+
+    @Autowired
+    private LlmResponseCache cache;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Each model call is an llm.request observation: a timer tagged with model and
+    // status, and a span under the analysis that made the call
+    @Autowired
+    private ObservationRegistry observations;
+
+    // Limits model requests in flight across all callers, independent of the analysis pool
+    @Value("${openai.max-concurrent-requests:8}")
+    private int maxConcurrentRequests;
+
+    // Upper bound for per-request max_tokens (the model's output limit)
+    @Value("${openai.max-output-tokens:4096}")
+    private int maxOutputTokens;
+
+    // Attempts per call, including the first
+    @Value("${openai.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${openai.retry.base-delay:500ms}")
+    private Duration retryBaseDelay;
+
+    @Value("${openai.retry.max-delay:10s}")
+    private Duration retryMaxDelay;
+
+    // 0 = no local limit; the rate-limit headers still pause requests when exhausted
+    @Value("${openai.rate-limit.requests-per-minute:0}")
+    private int requestsPerMinute;
+
+    @Value("${openai.rate-limit.burst:10}")
+    private int rateLimitBurst;
+
+    @Value("${openai.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${openai.circuit.open-duration:30s}")
+    private Duration circuitOpenDuration;
+
+    // Send a second copy of a request that has not answered after this long; 0 disables
+    @Value("${openai.hedge.delay:0s}")
+    private Duration hedgeDelay;
+
+    // Raw 200 responses are written here, named by cache key, for the replay stub
+    @Value("${openai.record-dir:}")
+    private String recordDir;
+
+    private AsyncLimiter limiter;
+    private TokenBucket rateLimiter;
+    private Backoff backoff;
+    private CircuitBreaker breaker;
+    private Counter hedges;
+
+    // The JDK client keeps a pool of connections per host (multiplexed over HTTP/2 when offered)
     private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
             .connectTimeout(Duration.ofSeconds(10))
             .build();
 
+    @PostConstruct
+    void init() {
+        limiter = new AsyncLimiter(maxConcurrentRequests);
+        rateLimiter = new TokenBucket(requestsPerMinute / 60d, rateLimitBurst);
+        backoff = new Backoff(retryBaseDelay, retryMaxDelay);
+        breaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenDuration.toNanos());
+        hedges = meterRegistry.counter("llm.hedges");
+        Gauge.builder("llm.requests.active", limiter, AsyncLimiter::running).register(meterRegistry);
+        Gauge.builder("llm.requests.queued", limiter, AsyncLimiter::queued).register(meterRegistry);
+        // 0 closed, 1 open, 2 half-open
+        Gauge.builder("llm.circuit.state", breaker, b -> b.state().ordinal()).register(meterRegistry);
+    }
+
     private String apiKey() {
         if (openAiKeyFromProps != null && !openAiKeyFromProps.isBlank()) {
             return openAiKeyFromProps;
@@ -27,78 +152,296 @@ public class OpenAIClient {
         return Optional.ofNullable(System.getenv("OPENAI_API_KEY")).orElse("");
     }
 
-    public String askModel(String prompt) {
-        try {
-            String apiKey = apiKey();
-            if (apiKey.isEmpty()) {
-                return "OpenAI API key not configured";
-            }
+    @Override
+    public String model() {
+        return model;
+    }
+
+    // maxTokens is capped at openai.max-output-tokens
+    @Override
+    public CompletableFuture<String> askModelAsync(String prompt, int maxTokens) {
+        int tokens = Math.min(maxTokens, maxOutputTokens);
+        String cacheKey = cache.key(model, tokens, TEMPERATURE, prompt);
+        String cached = cache.get(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        String apiKey = apiKey();
+        if (apiKey.isEmpty()) {
+            return CompletableFuture.failedFuture(new LlmException(-1, "OpenAI API key not configured", false));
+        }
 
-            // Create the JSON request body
-            String requestBody = String.format(
-                    "{\"model\":\"gpt-4o-mini\",\"messages\":[{\"role\":\"user\",\"content\":\"%s\"}],\"max_tokens\":1000,\"temperature\":0.7}",
-                    prompt.replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r")
-            );
-
-            // Build the HTTP request
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https://api.openai.com/v1/chat/completions"))
-                    .header("Content-Type", "application/json")
-                    .header("Authorization", "Bearer " + apiKey)
-                    .timeout(Duration.ofSeconds(60))
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            // Send the request
-            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                debugResponse(response.body()); // Add this line for debugging
-                return extractContentFromResponse(response.body());
+        HttpRequest request = buildRequest(apiKey, prompt, tokens, false);
+        Observation observation = observe(false);
+        CompletableFuture<String> answer = send(request, HttpResponse.BodyHandlers.ofByteArray(),
+                body -> new String(body, StandardCharsets.UTF_8), true, () -> true, 1)
+                .thenApply(response -> {
+                    byte[] body = response.body();
+                    metrics.recordResponseSize(model, body.length);
+                    debugResponse(body);
+                    record(cacheKey, body);
+                    String content = OpenAICodec.decodeContent(body);
+                    if (content == null) {
+                        throw new LlmException(200, "Unable to extract content from AI response", false);
+                    }
+                    cache.put(cacheKey, content);
+                    return content;
+                });
+        return observed(observation, answer);
+    }
+
+    // Passes each content delta to onToken as it arrives; cached answers arrive as a
+    // single token. A failed stream is only retried if no token was delivered yet.
+    @Override
+    public CompletableFuture<String> streamModelAsync(String prompt, Consumer<String> onToken) {
+        String cacheKey = cache.key(model, DEFAULT_MAX_TOKENS, TEMPERATURE, prompt);
+        String cached = cache.get(cacheKey);
+        if (cached != null) {
+            onToken.accept(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        String apiKey = apiKey();
+        if (apiKey.isEmpty()) {
+            return CompletableFuture.failedFuture(new LlmException(-1, "OpenAI API key not configured", false));
+        }
+
+        HttpRequest request = buildRequest(apiKey, prompt, DEFAULT_MAX_TOKENS, true);
+        AtomicBoolean started = new AtomicBoolean();
+        Consumer<String> tracking = token -> {
+            started.set(true);
+            onToken.accept(token);
+        };
+        HttpResponse.BodyHandler<String> handler = info -> info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(
+                        new OpenAIStreamSubscriber(tracking), OpenAIStreamSubscriber::content,
+                        StandardCharsets.UTF_8, "\n")
+                : HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+
+        Observation observation = observe(true);
+        // Hedging would deliver tokens twice, so streams are never hedged
+        CompletableFuture<String> answer = send(request, handler, body -> body, false, () -> !started.get(), 1)
+                .thenApply(response -> {
+                    String content = response.body();
+                    if (content == null) {
+                        throw new LlmException(200, "Unable to extract content from AI response", false);
+                    }
+                    metrics.recordResponseSize(model, content.getBytes(StandardCharsets.UTF_8).length);
+                    cache.put(cacheKey, content);
+                    return content;
+                });
+        return observed(observation, answer);
+    }
+
+    // Completes with a 200 response, or exceptionally with an LlmException once the
+    // failure is not retryable or the attempts are used up
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                        Function<T, String> errorBody, boolean hedge,
+                                                        BooleanSupplier mayRetry, int attempt) {
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new LlmException(-1, "OpenAI circuit breaker is open", false));
+        }
+        CompletableFuture<HttpResponse<T>> exchange = hedge && !hedgeDelay.isZero()
+                ? hedged(request, handler)
+                : exchange(request, handler, new InFlight());
+
+        return exchange.handle((response, e) -> {
+            LlmException failure = e != null ? transportFailure(e) : statusFailure(response, errorBody);
+
+            // Only an unreachable or failing server counts against the circuit
+            if (failure != null && (failure.getStatus() < 0 || failure.getStatus() >= 500)) {
+                breaker.onFailure();
             } else {
-                return "Error: HTTP " + response.statusCode() + " - " + response.body();
+                breaker.onSuccess();
             }
 
-        } catch (Exception e) {
-            return "Error processing request: " + e.getMessage();
+            if (failure == null) {
+                return CompletableFuture.completedFuture(response);
+            }
+            if (!failure.isRetryable() || attempt >= maxAttempts || !mayRetry.getAsBoolean()) {
+                return CompletableFuture.<HttpResponse<T>>failedFuture(failure);
+            }
+            meterRegistry.counter("llm.retries", "reason", failure.getStatus() < 0 ? "transport" : Integer.toString(failure.getStatus())).increment();
+            return CompletableFuture.runAsync(() -> { },
+                            CompletableFuture.delayedExecutor(backoff.delayNanos(attempt), TimeUnit.NANOSECONDS))
+                    .thenCompose(v -> send(request, handler, errorBody, hedge, mayRetry, attempt + 1));
+        }).thenCompose(f -> f);
+    }
+
+    // One HTTP exchange: waits for a rate-limit permit and a concurrency slot, then sends
+    private <T> CompletableFuture<HttpResponse<T>> exchange(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                            InFlight inFlight) {
+        long wait = rateLimiter.reserve();
+        CompletableFuture<Void> permit = wait > 0
+                ? CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS))
+                : CompletableFuture.completedFuture(null);
+        return permit
+                .thenCompose(v -> limiter.submit(() -> {
+                    if (inFlight.cancelled) {
+                        return CompletableFuture.failedFuture(new LlmException(-1, "Hedged request cancelled", false));
+                    }
+                    CompletableFuture<HttpResponse<T>> sent = http.sendAsync(request, handler);
+                    inFlight.future = sent;
+                    return sent;
+                }))
+                .thenApply(response -> {
+                    observeRateLimits(response.headers(), response.statusCode());
+                    return response;
+                });
+    }
+
+    // Sends a second copy if the first has not completed after hedgeDelay; the first
+    // to complete wins and the other is cancelled
+    private <T> CompletableFuture<HttpResponse<T>> hedged(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        InFlight first = new InFlight();
+        InFlight second = new InFlight();
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        exchange(request, handler, first).whenComplete((response, e) -> {
+            if (complete(result, response, e)) second.cancel();
+        });
+        CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone()) return;
+            hedges.increment();
+            exchange(request, handler, second).whenComplete((response, e) -> {
+                if (complete(result, response, e)) first.cancel();
+            });
+        });
+        return result;
+    }
+
+    private static <T> boolean complete(CompletableFuture<T> result, T value, Throwable e) {
+        return e == null ? result.complete(value) : result.completeExceptionally(e);
+    }
+
+    // OpenAI reports its limits per response: x-ratelimit-remaining-{requests,tokens}
+    // and x-ratelimit-reset-{requests,tokens} (e.g. "1s", "6m0s", "20ms")
+    private void observeRateLimits(HttpHeaders headers, int status) {
+        Optional<String> remainingRequests = headers.firstValue("x-ratelimit-remaining-requests");
+        Optional<String> resetRequests = headers.firstValue("x-ratelimit-reset-requests");
+        if (remainingRequests.isPresent() && resetRequests.isPresent()) {
+            rateLimiter.observe(parseLong(remainingRequests.get()), parseDurationNanos(resetRequests.get()));
+        }
+        Optional<String> remainingTokens = headers.firstValue("x-ratelimit-remaining-tokens");
+        Optional<String> resetTokens = headers.firstValue("x-ratelimit-reset-tokens");
+        if (remainingTokens.isPresent() && resetTokens.isPresent() && parseLong(remainingTokens.get()) <= 0) {
+            rateLimiter.pause(parseDurationNanos(resetTokens.get()));
+        }
+        if (status == 429) {
+            headers.firstValue("retry-after")
+                    .ifPresent(seconds -> rateLimiter.pause(parseDurationNanos(seconds.trim() + "s")));
         }
     }
 
-    private String extractContentFromResponse(String jsonResponse) {
+    private static long parseLong(String value) {
         try {
-            // Use regex to find the content field
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
-                    "\"content\":\\s*\"(.*?)\"(?=\\s*,\\s*\"refusal\"|\\s*})",
-                    java.util.regex.Pattern.DOTALL
-            );
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
 
-            java.util.regex.Matcher matcher = pattern.matcher(jsonResponse);
+    // Sums parts like "1h", "6m", "0.5s" and "20ms"; unparseable values count as 0
+    static long parseDurationNanos(String value) {
+        double nanos = 0;
+        Matcher m = DURATION_PART.matcher(value);
+        while (m.find()) {
+            double amount = Double.parseDouble(m.group(1));
+            switch (m.group(2)) {
+                case "h" -> nanos += amount * 3_600_000_000_000d;
+                case "m" -> nanos += amount * 60_000_000_000d;
+                case "s" -> nanos += amount * 1_000_000_000d;
+                default -> nanos += amount * 1_000_000d;
+            }
+        }
+        return (long) nanos;
+    }
 
-            if (matcher.find()) {
-                String content = matcher.group(1);
+    private static <T> LlmException statusFailure(HttpResponse<T> response, Function<T, String> errorBody) {
+        int status = response.statusCode();
+        if (status == 200) return null;
+        String body = response.body() == null ? "" : errorBody.apply(response.body());
+        if (body.length() > 500) body = body.substring(0, 500);
+        boolean retryable = status == 429 || status >= 500;
+        return new LlmException(status, "Error: HTTP " + status + " - " + body, retryable);
+    }
 
-                // Unescape JSON string
-                content = content.replace("\\n", "\n")
-                        .replace("\\\"", "\"")
-                        .replace("\\\\", "\\")
-                        .replace("\\r", "\r")
-                        .replace("\\t", "\t");
+    private static LlmException transportFailure(Throwable e) {
+        Throwable cause = rootCause(e);
+        if (cause instanceof LlmException) return (LlmException) cause;
+        return new LlmException("Error processing request: " + cause.getMessage(), cause);
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    // Covers the whole call, including rate-limit waits and retries
+    private Observation observe(boolean stream) {
+        return Observation.createNotStarted("llm.request", observations)
+                .contextualName("llm " + model)
+                .lowCardinalityKeyValue("model", model)
+                .lowCardinalityKeyValue("stream", Boolean.toString(stream))
+                .lowCardinalityKeyValue("status", "200")
+                .start();
+    }
 
-                return content;
+    private static CompletableFuture<String> observed(Observation observation, CompletableFuture<String> answer) {
+        return answer.whenComplete((content, e) -> {
+            if (e != null) {
+                Throwable cause = rootCause(e);
+                int status = cause instanceof LlmException ? ((LlmException) cause).getStatus() : -1;
+                observation.lowCardinalityKeyValue("status", status > 0 ? Integer.toString(status) : "error");
+                observation.error(cause);
             }
+            observation.stop();
+        });
+    }
+
+    // The body is encoded once into bytes: retries and the hedged copy resend the same
+    // request, and a known length avoids a chunked upload
+    private HttpRequest buildRequest(String apiKey, String prompt, int maxTokens, boolean stream) {
+        byte[] requestBody = OpenAICodec.encodeChatRequest(model, prompt, maxTokens, TEMPERATURE, stream);
+        metrics.recordPromptSize(model, requestBody.length);
 
-            return "Unable to extract content from AI response";
+        // Build the HTTP request
+        return HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/chat/completions"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody))
+                .build();
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error extracting content: " + e.getMessage());
-            e.printStackTrace();
-            return "Error processing AI response: " + e.getMessage();
+    private void record(String cacheKey, byte[] body) {
+        if (recordDir == null || recordDir.isBlank()) return;
+        try {
+            Path dir = Path.of(recordDir);
+            Files.createDirectories(dir);
+            // Write then rename, so the stub never replays a half-written file
+            Path tmp = Files.createTempFile(dir, cacheKey, ".tmp");
+            Files.write(tmp, body);
+            Files.move(tmp, dir.resolve(cacheKey + ".json"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not record OpenAI response: {}", e.getMessage(), e);
         }
     }
 
-    private void debugResponse(String response) {
-        System.out.println("=== DEBUG: Full OpenAI Response ===");
-        System.out.println(response.substring(0, Math.min(500, response.length())));
-        System.out.println("=== END DEBUG ===");
+    // Enable with logging.level.com.ai.hackathon.service.OpenAIClient=DEBUG
+    private void debugResponse(byte[] response) {
+        if (log.isDebugEnabled()) {
+            log.debug("OpenAI response: {}", new String(response, 0, Math.min(500, response.length), StandardCharsets.UTF_8));
+        }
+    }
+
+    // Lets a hedged request cancel the copy that lost, whether it is queued or already sent
+    private static final class InFlight {
+        volatile boolean cancelled;
+        volatile CompletableFuture<?> future;
+
+        void cancel() {
+            cancelled = true;
+            CompletableFuture<?> f = future;
+            if (f != null) f.cancel(true);
+        }
     }
 }
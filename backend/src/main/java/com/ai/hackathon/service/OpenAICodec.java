@@ -0,0 +1,81 @@
+package com.ai.hackathon.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Wire format of the chat completions API. Requests are generated straight into UTF-8
+// bytes and responses are read with a single forward pass of the streaming parser,
+// so neither side builds the whole body as a String or relies on regex extraction.
+public final class OpenAICodec {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private OpenAICodec() {}
+
+    public static byte[] encodeChatRequest(String model, String prompt, int maxTokens, double temperature, boolean stream) {
+        try (ByteArrayBuilder out = new ByteArrayBuilder(prompt.length() + 128);
+             JsonGenerator g = JSON.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeStringField("model", model);
+            g.writeArrayFieldStart("messages");
+            g.writeStartObject();
+            g.writeStringField("role", "user");
+            g.writeStringField("content", prompt);
+            g.writeEndObject();
+            g.writeEndArray();
+            g.writeNumberField("max_tokens", maxTokens);
+            g.writeNumberField("temperature", temperature);
+            if (stream) {
+                g.writeBooleanField("stream", true);
+            }
+            g.writeEndObject();
+            g.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // choices[0].message.content of a non-streamed response, or null if absent
+    public static String decodeContent(byte[] body) {
+        try (JsonParser p = JSON.createParser(body)) {
+            return readChoiceContent(p, "message");
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // choices[0].delta.content of one streamed chunk, or null if absent
+    public static String decodeDeltaContent(String chunk) {
+        try (JsonParser p = JSON.createParser(chunk)) {
+            return readChoiceContent(p, "delta");
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String readChoiceContent(JsonParser p, String holder) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) return null;
+        if (!seekField(p, "choices") || p.nextToken() != JsonToken.START_ARRAY) return null;
+        if (p.nextToken() != JsonToken.START_OBJECT) return null;
+        if (!seekField(p, holder) || p.nextToken() != JsonToken.START_OBJECT) return null;
+        if (!seekField(p, "content")) return null;
+        return p.nextToken() == JsonToken.VALUE_STRING ? p.getText() : null;
+    }
+
+    // Moves to the named field of the current object, skipping other values whole
+    private static boolean seekField(JsonParser p, String name) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            if (name.equals(p.currentName())) return true;
+            p.nextToken();
+            p.skipChildren();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ai.hackathon.service;
+
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+// Consumes a chat completions response sent with "stream": true, line by line as the
+// bytes arrive, and forwards each content delta to the caller.
+class OpenAIStreamSubscriber implements Flow.Subscriber<String> {
+
+    private final Consumer<String> onToken;
+    private final StringBuilder content = new StringBuilder();
+    private boolean malformed;
+
+    OpenAIStreamSubscriber(Consumer<String> onToken) {
+        this.onToken = onToken;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String line) {
+        // SSE frames look like "data: {...}"; blank lines separate events
+        if (!line.startsWith("data:")) return;
+        String payload = line.substring(5).trim();
+        if (payload.isEmpty() || payload.equals("[DONE]")) return;
+        String token = OpenAICodec.decodeDeltaContent(payload);
+        if (token == null) {
+            // role-only and finish chunks carry no content; anything else is noise
+            malformed |= !payload.startsWith("{");
+            return;
+        }
+        content.append(token);
+        onToken.accept(token);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        // surfaced through the response future
+    }
+
+    @Override
+    public void onComplete() {
+        // finisher reads the accumulated content
+    }
+
+    // Accumulated completion, or null when nothing usable was streamed
+    String content() {
+        return content.length() == 0 && malformed ? null : content.toString();
+    }
+}
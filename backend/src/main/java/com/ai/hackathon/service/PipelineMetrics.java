@@ -0,0 +1,69 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.AnalysisTier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Timers and size histograms for the analysis pipeline, exported via /actuator/prometheus
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_PARSE = "parse";
+    public static final String STAGE_HEURISTICS = "heuristics";
+    public static final String STAGE_CROSS_FILE = "cross-file";
+    public static final String STAGE_AST_REFACTOR = "ast-refactor";
+    public static final String STAGE_RESCORE = "rescore";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Runs work and records its duration as analysis.stage{stage=...}
+    public <T> T time(String stage, Supplier<T> work) {
+        return Timer.builder("analysis.stage")
+                .description("Time spent in one local stage of an analysis")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(work);
+    }
+
+    public void recordPromptSize(String model, int bytes) {
+        size("llm.prompt.size", model, bytes);
+    }
+
+    public void recordResponseSize(String model, int bytes) {
+        size("llm.response.size", model, bytes);
+    }
+
+    public void recordSourceLines(int lines) {
+        DistributionSummary.builder("analysis.source.lines")
+                .description("Lines per analyzed file")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(lines);
+    }
+
+    // analysis.tier{tier=...} counts reviews by how far they went
+    public void recordTier(AnalysisTier tier) {
+        Counter.builder("analysis.tier")
+                .description("Reviews by the stages that ran")
+                .tag("tier", tier.id())
+                .register(registry)
+                .increment();
+    }
+
+    private void size(String name, String model, int bytes) {
+        DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(bytes);
+    }
+}
@@ -0,0 +1,130 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.rules.FileSymbols;
+import com.ai.hackathon.rules.ProjectIndex;
+import com.ai.hackathon.util.ParsedDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Owns the ProjectIndex: every analyzed file (single uploads, batches, jobs and
+// incremental reviews) is added to it and checked against the rest of the project.
+// With a snapshot file the index is loaded at startup and written back periodically
+// and on shutdown.
+@Component
+public class ProjectIndexService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectIndexService.class);
+
+    @Value("${project-index.enabled:true}")
+    private boolean enabled;
+
+    // Empty keeps the index in memory only
+    @Value("${project-index.snapshot-file:}")
+    private String snapshotFile;
+
+    @Value("${project-index.snapshot-interval:5m}")
+    private Duration snapshotInterval;
+
+    @Value("${project-index.min-files:10}")
+    private int minFilesForUnused;
+
+    @Value("${project-index.min-duplicate-tokens:60}")
+    private int minDuplicateTokens;
+
+    // Estimated Jaccard similarity of normalized token shingles for near-duplicate-method
+    @Value("${project-index.near-duplicate-similarity:0.8}")
+    private double nearDuplicateSimilarity;
+
+    private volatile ProjectIndex index = new ProjectIndex();
+    private Path snapshot;
+    private long savedAt;
+    private ScheduledExecutorService saver;
+
+    @PostConstruct
+    void init() {
+        if (!enabled || snapshotFile == null || snapshotFile.isBlank()) return;
+        snapshot = Path.of(snapshotFile).toAbsolutePath();
+        try {
+            Files.createDirectories(snapshot.getParent());
+        } catch (IOException e) {
+            log.warn("Cannot create project index directory: {}", e.getMessage());
+        }
+        if (Files.exists(snapshot)) {
+            long start = System.nanoTime();
+            try {
+                index = ProjectIndex.readSnapshot(snapshot);
+                savedAt = index.updates();
+                log.info("Loaded project index of {} files in {} ms",
+                        index.fileCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (IOException e) {
+                log.warn("Starting with an empty project index: {}", e.getMessage());
+            }
+        }
+        saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "project-index-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, snapshotInterval.toMillis());
+        saver.scheduleWithFixedDelay(this::saveIfChanged, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (saver == null) return;
+        saver.shutdownNow();
+        saveIfChanged();
+    }
+
+    // Indexes this version of the file, then returns its cross-file issues
+    public List<Issue> review(String fileName, ParsedDocument doc) {
+        if (!enabled || fileName == null) return List.of();
+        FileSymbols file = FileSymbols.extract(fileName, doc, minDuplicateTokens);
+        index.put(file);
+        return index.check(file, minFilesForUnused, nearDuplicateSimilarity);
+    }
+
+    // Cross-file issues of a version that is not indexed, e.g. a refactored source
+    public List<Issue> check(String fileName, ParsedDocument doc) {
+        if (!enabled || fileName == null) return List.of();
+        return index.check(FileSymbols.extract(fileName, doc, minDuplicateTokens), minFilesForUnused, nearDuplicateSimilarity);
+    }
+
+    public void update(String fileName, ParsedDocument doc) {
+        if (!enabled || fileName == null) return;
+        index.put(FileSymbols.extract(fileName, doc, minDuplicateTokens));
+    }
+
+    private synchronized void saveIfChanged() {
+        long updates = index.updates();
+        if (snapshot == null || updates == savedAt) return;
+        try {
+            index.writeSnapshot(snapshot);
+            savedAt = updates;
+        } catch (IOException e) {
+            log.warn("Could not write project index snapshot: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("project.index.files", this, s -> s.index.fileCount()).register(registry);
+    }
+}
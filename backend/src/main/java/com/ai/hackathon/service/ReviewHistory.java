@@ -0,0 +1,113 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.AnalysisResult;
+import com.ai.hackathon.util.CompressedText;
+import com.ai.hackathon.util.Digests;
+import com.ai.hackathon.util.LruCache;
+import com.ai.hackathon.util.UnifiedDiff;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Recently reviewed file versions, keyed by a digest of file name and source. Used to
+// push re-uploads of the same file further, as the base of incremental reviews and to
+// serve result bodies on demand (/api/results/{id}). The original and refactored
+// sources are kept gzip-compressed; everything else is kept as is.
+@Component
+public class ReviewHistory {
+
+    public static final int DIFF_CONTEXT_LINES = 3;
+
+    @Value("${analysis.history.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${analysis.history.ttl:24h}")
+    private Duration ttl;
+
+    private LruCache<String, StoredResult> versions;
+
+    @PostConstruct
+    void init() {
+        versions = new LruCache<>(maxEntries, ttl);
+    }
+
+    public static String versionId(String fileName, String source) {
+        return Digests.sha256Hex(fileName, source);
+    }
+
+    // Full result with both sources decompressed; a fresh copy on every call
+    public AnalysisResult get(String versionId) {
+        StoredResult stored = stored(versionId);
+        if (stored == null) return null;
+        AnalysisResult result = withoutSources(stored.meta);
+        result.setOriginalSource(stored.original.text());
+        result.setRefactoredSource(stored.refactored == null ? null : stored.refactored.text());
+        return result;
+    }
+
+    public void put(AnalysisResult result) {
+        versions.put(result.getVersionId(), new StoredResult(withoutSources(result),
+                CompressedText.of(result.getOriginalSource()), CompressedText.of(result.getRefactoredSource())));
+    }
+
+    // Summary of a stored result, see summarize()
+    public AnalysisResult summary(String versionId) {
+        AnalysisResult full = get(versionId);
+        return full == null ? null : summarize(full);
+    }
+
+    public CompressedText original(String versionId) {
+        StoredResult stored = stored(versionId);
+        return stored == null ? null : stored.original;
+    }
+
+    public CompressedText refactored(String versionId) {
+        StoredResult stored = stored(versionId);
+        return stored == null ? null : stored.refactored;
+    }
+
+    // Issues and scores without the two sources; the refactored source is described by a
+    // unified diff against the original and both bodies can be fetched by versionId
+    public static AnalysisResult summarize(AnalysisResult full) {
+        AnalysisResult summary = withoutSources(full);
+        if (full.getOriginalSource() != null && full.getRefactoredSource() != null) {
+            String name = full.getFileName() == null ? "source" : full.getFileName();
+            summary.setRefactoredDiff(UnifiedDiff.format(name, name,
+                    full.getOriginalSource(), full.getRefactoredSource(), DIFF_CONTEXT_LINES));
+        }
+        return summary;
+    }
+
+    private StoredResult stored(String versionId) {
+        return versionId == null ? null : versions.get(versionId);
+    }
+
+    private static AnalysisResult withoutSources(AnalysisResult from) {
+        AnalysisResult copy = new AnalysisResult();
+        copy.setFileName(from.getFileName());
+        copy.setOriginalScore(from.getOriginalScore());
+        copy.setIssues(from.getIssues());
+        copy.setAiSuggestions(from.getAiSuggestions());
+        copy.setRefactoredScore(from.getRefactoredScore());
+        copy.setVersionId(from.getVersionId());
+        copy.setReanalyzedMembers(from.getReanalyzedMembers());
+        copy.setAppliedFixes(from.getAppliedFixes());
+        copy.setProfile(from.getProfile());
+        copy.setTier(from.getTier());
+        return copy;
+    }
+
+    private static final class StoredResult {
+        final AnalysisResult meta;
+        final CompressedText original;
+        final CompressedText refactored;
+
+        StoredResult(AnalysisResult meta, CompressedText original, CompressedText refactored) {
+            this.meta = meta;
+            this.original = original;
+            this.refactored = refactored;
+        }
+    }
+}
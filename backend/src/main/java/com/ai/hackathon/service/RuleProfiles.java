@@ -0,0 +1,321 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.config.RuleConfig;
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.rules.BuiltInRules;
+import com.ai.hackathon.rules.MethodMetrics;
+import com.ai.hackathon.rules.ProjectIndex;
+import com.ai.hackathon.rules.Rule;
+import com.ai.hackathon.rules.RuleEngine;
+import com.ai.hackathon.rules.RuleEngineFactory;
+import com.ai.hackathon.rules.RuleProfile;
+import com.ai.hackathon.util.ScoringProfile;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.BindHandler;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.handler.NoUnboundElementsBindHandler;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Named rule profiles, picked per request with ?profile=<name>. "default" is the
+// configured rule engine, scoring.profile and analysis.score-floor; the others come
+// from the YAML file in rules.profiles-file:
+//
+//   profiles:
+//     strict:
+//       score-floor: 0
+//       max-penalty: 100
+//       metrics: { max-lines: 30, max-cognitive: 10 }
+//       weights: { broad-catch: 10 }
+//       disabled: [ todo ]
+//
+// Each profile is compiled into a RuleProfile when the file is read, starting from the
+// default's settings, so its weights and max-penalty apply on top of scoring.profile;
+// scoring.profiles.<name> entries are not rule profiles and cannot be requested.
+// The file is watched; on a change every profile is compiled again and the whole map
+// swapped in at once. A file that does not compile leaves the previous profiles in place.
+@Component
+public class RuleProfiles implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleProfiles.class);
+
+    // Lets an editor finish writing before the file is read again
+    private static final long SETTLE_MILLIS = 100;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private RuleEngine ruleEngine;
+
+    @Autowired
+    private RuleEngineFactory ruleEngineFactory;
+
+    @Autowired
+    private ScoringProfiles scoringProfiles;
+
+    // Empty = the default profile only
+    @Value("${rules.profiles-file:}")
+    private String profilesFile;
+
+    @Value("${analysis.score-floor:40}")
+    private int scoreFloor;
+
+    private RuleProfile defaultProfile;
+    private volatile Map<String, RuleProfile> profiles;
+    private Compiler compiler;
+    private Path file;
+    private WatchService watcher;
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failedReloads = new AtomicLong();
+
+    // One profile of the YAML file; unset values keep the default profile's
+    public static class Spec {
+        private Integer scoreFloor;
+        private Integer maxPenalty;
+        private Map<String, Integer> metrics = new HashMap<>();
+        private Map<String, Integer> weights = new HashMap<>();
+        private List<String> disabled = new ArrayList<>();
+
+        public Integer getScoreFloor() { return scoreFloor; }
+        public void setScoreFloor(Integer scoreFloor) { this.scoreFloor = scoreFloor; }
+        public Integer getMaxPenalty() { return maxPenalty; }
+        public void setMaxPenalty(Integer maxPenalty) { this.maxPenalty = maxPenalty; }
+        public Map<String, Integer> getMetrics() { return metrics; }
+        public void setMetrics(Map<String, Integer> metrics) { this.metrics = metrics; }
+        public Map<String, Integer> getWeights() { return weights; }
+        public void setWeights(Map<String, Integer> weights) { this.weights = weights; }
+        public List<String> getDisabled() { return disabled; }
+        public void setDisabled(List<String> disabled) { this.disabled = disabled; }
+    }
+
+    // Turns profile files into RuleProfiles on top of the default settings. All binding,
+    // id lookups and regex compilation happen here; the plans only hold arrays.
+    public static final class Compiler {
+        private final Map<MethodMetrics.Metric, Integer> limits;
+        private final List<Rule> customRules;
+        private final ScoringProfile scoring;
+        private final int scoreFloor;
+        private final RuleEngineFactory engines;
+        private final Set<String> ruleIds = new HashSet<>();
+
+        public Compiler(Map<MethodMetrics.Metric, Integer> limits, List<Rule> customRules, ScoringProfile scoring,
+                        int scoreFloor, RuleEngineFactory engines) {
+            this.limits = limits;
+            this.engines = engines;
+            this.customRules = List.copyOf(customRules);
+            this.scoring = scoring;
+            this.scoreFloor = scoreFloor;
+            BuiltInRules.all().forEach(r -> ruleIds.add(r.id()));
+            customRules.forEach(r -> ruleIds.add(r.id()));
+            ProjectIndex.RULE_IDS.forEach(r -> ruleIds.add(r.id()));
+        }
+
+        public Map<String, RuleProfile> compile(Path file) throws IOException {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader().load(file.toString(), new FileSystemResource(file));
+            Map<String, Spec> specs;
+            try {
+                specs = new Binder(ConfigurationPropertySources.from(sources))
+                        .bind("profiles", Bindable.mapOf(String.class, Spec.class), new NoUnboundElementsBindHandler(BindHandler.DEFAULT))
+                        .orElse(Map.of());
+            } catch (BindException e) {
+                // the cause names the misspelled key or the bad value
+                throw new IllegalStateException(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(), e);
+            }
+            Map<String, RuleProfile> compiled = new HashMap<>();
+            specs.forEach((name, spec) -> compiled.put(name, compile(name, spec)));
+            return compiled;
+        }
+
+        public RuleProfile compile(String name, Spec spec) {
+            if (RuleProfile.DEFAULT.equals(name)) {
+                throw new IllegalStateException("Rule profile name '" + name + "' is reserved");
+            }
+            Map<MethodMetrics.Metric, Integer> profileLimits = new EnumMap<>(limits);
+            spec.getMetrics().forEach((property, limit) -> profileLimits.put(metric(name, property), limit));
+
+            Set<String> disabled = new HashSet<>();
+            for (String id : spec.getDisabled()) {
+                if (!ruleIds.contains(id)) throw unknownRule(name, id);
+                disabled.add(id);
+            }
+            List<Rule> rules = new ArrayList<>(BuiltInRules.all(profileLimits));
+            rules.addAll(customRules);
+            rules.removeIf(r -> disabled.contains(r.id()));
+            Set<RuleId> disabledCrossFile = EnumSet.noneOf(RuleId.class);
+            ProjectIndex.RULE_IDS.stream().filter(r -> disabled.contains(r.id())).forEach(disabledCrossFile::add);
+
+            Map<RuleId, Integer> weights = new EnumMap<>(RuleId.class);
+            spec.getWeights().forEach((id, weight) -> {
+                RuleId rule = RuleId.fromId(id);
+                // custom rules carry their weight in their issues
+                if (rule == RuleId.CUSTOM) throw unknownRule(name, id);
+                weights.put(rule, weight);
+            });
+            ScoringProfile profileScoring = scoring.derive(name, weights,
+                    spec.getMaxPenalty() != null ? spec.getMaxPenalty() : scoring.maxPenalty());
+            return new RuleProfile(name, engines.create(rules), profileScoring,
+                    spec.getScoreFloor() != null ? spec.getScoreFloor() : scoreFloor, disabledCrossFile);
+        }
+
+        private static MethodMetrics.Metric metric(String profile, String property) {
+            for (MethodMetrics.Metric metric : MethodMetrics.Metric.values()) {
+                if (metric.property().equals(property)) return metric;
+            }
+            throw new IllegalStateException("Unknown metric '" + property + "' in rule profile '" + profile + "'");
+        }
+
+        private static IllegalStateException unknownRule(String profile, String id) {
+            return new IllegalStateException("Unknown rule '" + id + "' in rule profile '" + profile + "'");
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        defaultProfile = new RuleProfile(RuleProfile.DEFAULT, ruleEngine, scoringProfiles.active(), scoreFloor, Set.of());
+        profiles = Map.of(RuleProfile.DEFAULT, defaultProfile);
+        if (profilesFile == null || profilesFile.isBlank()) return;
+
+        file = Path.of(profilesFile).toAbsolutePath();
+        List<Rule> customRules = ruleEngine.rules().stream().filter(r -> r.ruleId() == RuleId.CUSTOM).toList();
+        compiler = new Compiler(RuleConfig.metricLimits(environment), customRules, scoringProfiles.active(), scoreFloor,
+                ruleEngineFactory);
+        // A broken file stops the application from starting; a missing one may appear later
+        if (Files.exists(file)) {
+            try {
+                profiles = load();
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("Cannot load rule profiles from " + file + ": " + e.getMessage(), e);
+            }
+        } else {
+            log.warn("Rule profiles file {} does not exist yet; using the default profile", file);
+        }
+        try {
+            watcher = file.getFileSystem().newWatchService();
+            file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            log.warn("Rule profiles will not be reloaded, cannot watch {}: {}", file.getParent(), e.getMessage());
+            return;
+        }
+        Thread t = new Thread(this::watch, "rule-profiles-watcher");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (watcher != null) watcher.close();
+    }
+
+    // The named profile; null or blank means the default
+    public RuleProfile get(String name) {
+        if (name == null || name.isBlank()) return defaultProfile;
+        RuleProfile profile = profiles.get(name);
+        if (profile == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown rule profile '" + name + "', known: " + new TreeSet<>(profiles.keySet()));
+        }
+        return profile;
+    }
+
+    public RuleProfile defaultProfile() {
+        return defaultProfile;
+    }
+
+    // Compiles the file again and swaps the result in; false when it did not compile
+    public boolean reload() {
+        if (compiler == null) return false;
+        try {
+            profiles = load();
+            reloads.incrementAndGet();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failedReloads.incrementAndGet();
+            log.warn("Keeping the previous rule profiles, cannot load {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private Map<String, RuleProfile> load() throws IOException {
+        Map<String, RuleProfile> loaded = new HashMap<>(compiler.compile(file));
+        loaded.put(RuleProfile.DEFAULT, defaultProfile);
+        return Map.copyOf(loaded);
+    }
+
+    private void watch() {
+        while (true) {
+            try {
+                WatchKey key = watcher.take();
+                boolean changed = touchesFile(key);
+                if (!key.reset()) {
+                    log.warn("Stopped watching rule profiles, {} is gone", file.getParent());
+                    return;
+                }
+                if (!changed) continue;
+                // Editors often write a file in several steps; settle, then drop the rest
+                Thread.sleep(SETTLE_MILLIS);
+                for (WatchKey more = watcher.poll(); more != null; more = watcher.poll()) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                reload();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private boolean touchesFile(WatchKey key) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                touched = true;
+            }
+        }
+        return touched;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rules.profiles", this, p -> p.profiles.size()).register(registry);
+        FunctionCounter.builder("rules.profiles.reloads", reloads, AtomicLong::get).tag("result", "ok").register(registry);
+        FunctionCounter.builder("rules.profiles.reloads", failedReloads, AtomicLong::get).tag("result", "failed").register(registry);
+    }
+}
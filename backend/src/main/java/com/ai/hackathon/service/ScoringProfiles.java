@@ -0,0 +1,77 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.util.ScoringProfile;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Scoring profiles from configuration: scoring.profiles.<name>.<rule-id>=<weight> and
+// scoring.profiles.<name>.max-penalty=<cap>, with scoring.profile naming the one in use.
+// "default" always exists and holds each rule's default weight. The one in use is the
+// server-wide base: the default rule profile scores with it and every rule profile of
+// RuleProfiles starts from it; requests pick rule profiles, never these.
+@Component
+public class ScoringProfiles {
+
+    private static final String MAX_PENALTY = "max-penalty";
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${scoring.profile:default}")
+    private String activeName;
+
+    private final Map<String, ScoringProfile> profiles = new HashMap<>();
+    private ScoringProfile active;
+
+    @PostConstruct
+    void init() {
+        profiles.put(ScoringProfile.DEFAULT.name(), ScoringProfile.DEFAULT);
+        Bindable<Map<String, Map<String, Integer>>> type = Bindable.of(ResolvableType.forClassWithGenerics(Map.class,
+                ResolvableType.forClass(String.class),
+                ResolvableType.forClassWithGenerics(Map.class, String.class, Integer.class)));
+        Binder.get(environment).bind("scoring.profiles", type)
+                .orElse(Map.of())
+                .forEach((name, settings) -> profiles.put(name, parse(name, settings)));
+
+        active = profiles.get(activeName);
+        if (active == null) {
+            throw new IllegalStateException("Unknown scoring.profile '" + activeName + "', known: " + profiles.keySet());
+        }
+    }
+
+    private static ScoringProfile parse(String name, Map<String, Integer> settings) {
+        Map<RuleId, Integer> weights = new EnumMap<>(RuleId.class);
+        int maxPenalty = ScoringProfile.DEFAULT.maxPenalty();
+        for (Map.Entry<String, Integer> e : settings.entrySet()) {
+            if (MAX_PENALTY.equals(e.getKey())) {
+                maxPenalty = e.getValue();
+                continue;
+            }
+            RuleId rule = RuleId.fromId(e.getKey());
+            if (rule == RuleId.CUSTOM) {
+                throw new IllegalStateException("Unknown rule '" + e.getKey() + "' in scoring profile '" + name + "'");
+            }
+            weights.put(rule, e.getValue());
+        }
+        return ScoringProfile.of(name, weights, maxPenalty);
+    }
+
+    public ScoringProfile active() {
+        return active;
+    }
+
+    public ScoringProfile get(String name) {
+        return profiles.get(name);
+    }
+}
@@ -0,0 +1,142 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.util.SourceDecoder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Turns uploaded source files into text with a bounded heap cost. Small parts are read
+// into memory; larger ones are moved to a temp file (a rename when the container has
+// already spooled the part to disk), memory-mapped and decoded from the mapping, so the
+// only heap copy is the decoded text itself. Every upload holds its size against a
+// shared byte budget until its analysis completes; when the budget is exhausted new
+// uploads wait briefly and are then turned away with 503 instead of piling up on the heap.
+@Component
+public class SourceUploads implements MeterBinder {
+
+    @Value("${analysis.upload.max-bytes:20971520}")
+    private long maxBytes;
+
+    @Value("${analysis.upload.spill-threshold:1048576}")
+    private long spillThreshold;
+
+    @Value("${analysis.upload.max-in-flight-bytes:268435456}")
+    private long maxInFlightBytes;
+
+    @Value("${analysis.upload.acquire-timeout:10s}")
+    private Duration acquireTimeout;
+
+    @Value("${analysis.upload.spill-dir:}")
+    private String spillDir;
+
+    // Permits are KiB so that the budget fits an int
+    private Semaphore budget;
+    private int budgetKib;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+
+    // Decoded text of one upload; release() returns its share of the budget
+    public static final class Upload {
+        private final String text;
+        private final Semaphore budget;
+        private final int permits;
+        private boolean released;
+
+        Upload(String text, Semaphore budget, int permits) {
+            this.text = text;
+            this.budget = budget;
+            this.permits = permits;
+        }
+
+        public String text() {
+            return text;
+        }
+
+        public synchronized void release() {
+            if (released) return;
+            released = true;
+            budget.release(permits);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        budgetKib = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxInFlightBytes / 1024));
+        budget = new Semaphore(budgetKib, true);
+    }
+
+    public Upload read(MultipartFile file) throws IOException {
+        long size = file.getSize();
+        if (size > maxBytes) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Source file is " + size + " bytes; the limit is " + maxBytes);
+        }
+        // A single upload larger than the whole budget waits for all of it
+        int permits = (int) Math.min(budgetKib, Math.max(1, (size + 1023) / 1024));
+        try {
+            if (!budget.tryAcquire(permits, acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many uploads in progress; retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for upload capacity");
+        }
+        try {
+            String text = size > spillThreshold
+                    ? decodeMapped(file)
+                    : SourceDecoder.decode(file.getBytes(), file.getContentType());
+            return new Upload(text, budget, permits);
+        } catch (IOException | RuntimeException e) {
+            budget.release(permits);
+            throw e;
+        }
+    }
+
+    private String decodeMapped(MultipartFile file) throws IOException {
+        spilled.increment();
+        Path tmp = spillDir.isEmpty()
+                ? Files.createTempFile("upload-", ".src")
+                : Files.createTempFile(Files.createDirectories(Path.of(spillDir)), "upload-", ".src");
+        try {
+            Files.delete(tmp); // transferTo renames onto the path when the part is already on disk
+            file.transferTo(tmp);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                return SourceDecoder.decode(mapped, file.getContentType());
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public long inFlightBytes() {
+        return (long) (budgetKib - budget.availablePermits()) * 1024;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("analysis.uploads.in-flight.bytes", this, SourceUploads::inFlightBytes).register(registry);
+        FunctionCounter.builder("analysis.uploads.spilled", spilled, LongAdder::sum).register(registry);
+        FunctionCounter.builder("analysis.uploads.rejected", rejected, LongAdder::sum).register(registry);
+    }
+}
@@ -0,0 +1,181 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.util.Digests;
+import com.ai.hackathon.util.LruCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Model suggestions reused across files with the same kinds of issues. The key is a
+// digest of the prompt kind and the issues in rule order, with line numbers, quoted
+// names, file references and other numbers taken out of the messages; files that only
+// differ in those share an entry. On a hit the cached suggestions are rewritten for the
+// new file: the issues of both files are paired by rule and position, "line N" follows
+// the paired issue's line and quoted names and file references are swapped for the new
+// file's. LlmResponseCache cannot do this, since its key is the exact prompt.
+@Component
+public class SuggestionCache implements MeterBinder {
+
+    // Prompt kinds; suggestions are only reused for the same kind of prompt
+    public static final String KIND_REVIEW = "review";
+    public static final String KIND_FURTHER = "further";
+    public static final String KIND_CHANGED_MEMBERS = "changed-members";
+
+    private static final Pattern QUOTED = Pattern.compile("'([^'\\s]+)'");
+    private static final Pattern FILE_REF = Pattern.compile("[\\w$.-]+\\.java(?::\\d+)?");
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern LINE_REF = Pattern.compile("(?i)(\\blines?\\s+)(\\d+)");
+
+    // 0 disables the cache
+    @Value("${analysis.suggestion-cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${analysis.suggestion-cache.ttl:24h}")
+    private Duration ttl;
+
+    private LruCache<String, Entry> entries;
+
+    private static final class Entry {
+        final List<String> suggestions;
+        final List<Issue> issues; // as ordered by Signature
+
+        Entry(List<String> suggestions, List<Issue> issues) {
+            this.suggestions = suggestions;
+            this.issues = issues;
+        }
+    }
+
+    // Issues sorted by rule and normalized message, then line, and the digest of the
+    // normalized list
+    private static final class Signature {
+        final List<Issue> issues;
+        final String key;
+
+        Signature(String kind, List<Issue> issues) {
+            String[] normalized = new String[issues.size()];
+            Integer[] order = new Integer[issues.size()];
+            for (int i = 0; i < normalized.length; i++) {
+                Issue issue = issues.get(i);
+                normalized[i] = (issue.getRuleId() == null ? "" : issue.getRuleId().id()) + ":" + normalize(issue.getMessage());
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing((Integer i) -> normalized[i])
+                    .thenComparingInt(i -> issues.get(i).getLine()));
+            List<Issue> sorted = new ArrayList<>(order.length);
+            StringBuilder joined = new StringBuilder();
+            for (int i : order) {
+                sorted.add(issues.get(i));
+                joined.append(normalized[i]).append('\n');
+            }
+            this.issues = sorted;
+            this.key = Digests.sha256Hex(kind, joined.toString());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        entries = new LruCache<>(Math.max(maxEntries, 0), ttl);
+    }
+
+    // Cached suggestions rewritten for these issues, or null
+    public List<String> get(String kind, List<Issue> issues) {
+        if (maxEntries <= 0) return null;
+        Signature signature = new Signature(kind, issues);
+        Entry entry = entries.get(signature.key);
+        return entry == null ? null : remap(entry, signature.issues);
+    }
+
+    // Empty answers are not kept, so the next file with these issues asks again
+    public void put(String kind, List<Issue> issues, List<String> suggestions) {
+        if (maxEntries <= 0 || suggestions.isEmpty()) return;
+        Signature signature = new Signature(kind, issues);
+        entries.put(signature.key, new Entry(List.copyOf(suggestions), signature.issues));
+    }
+
+    static String normalize(String message) {
+        if (message == null) return "";
+        String s = FILE_REF.matcher(message).replaceAll("?.java");
+        s = QUOTED.matcher(s).replaceAll("'?'");
+        return NUMBER.matcher(s).replaceAll("#");
+    }
+
+    // Equal keys mean both lists have the same normalized messages in the same order,
+    // so the i-th issues correspond
+    private static List<String> remap(Entry entry, List<Issue> ordered) {
+        Map<String, String> lines = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            Issue from = entry.issues.get(i);
+            Issue to = ordered.get(i);
+            lines.putIfAbsent(Integer.toString(from.getLine()), Integer.toString(to.getLine()));
+            pairUp(QUOTED, from.getMessage(), to.getMessage(), 1, names);
+            pairUp(FILE_REF, from.getMessage(), to.getMessage(), 0, names);
+        }
+        lines.entrySet().removeIf(e -> e.getKey().equals(e.getValue()));
+        names.entrySet().removeIf(e -> e.getKey().equals(e.getValue()));
+        if (lines.isEmpty() && names.isEmpty()) return entry.suggestions;
+
+        Pattern namePattern = names.isEmpty() ? null : Pattern.compile("(?<![\\w$.])("
+                + names.keySet().stream().sorted(Comparator.comparingInt(String::length).reversed())
+                        .map(Pattern::quote).collect(Collectors.joining("|"))
+                + ")(?![\\w$])");
+        List<String> remapped = new ArrayList<>(entry.suggestions.size());
+        for (String suggestion : entry.suggestions) {
+            String s = replace(LINE_REF, suggestion, m -> m.group(1) + lines.getOrDefault(m.group(2), m.group(2)));
+            if (namePattern != null) s = replace(namePattern, s, m -> names.get(m.group(1)));
+            remapped.add(s);
+        }
+        return remapped;
+    }
+
+    private static void pairUp(Pattern pattern, String from, String to, int group, Map<String, String> pairs) {
+        if (from == null || to == null) return;
+        Matcher a = pattern.matcher(from);
+        Matcher b = pattern.matcher(to);
+        while (a.find() && b.find()) {
+            pairs.putIfAbsent(a.group(group), b.group(group));
+        }
+    }
+
+    private static String replace(Pattern pattern, String text, Function<Matcher, String> replacement) {
+        Matcher m = pattern.matcher(text);
+        if (!m.find()) return text;
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        do {
+            m.appendReplacement(sb, Matcher.quoteReplacement(replacement.apply(m)));
+        } while (m.find());
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    public long hits() { return entries.hits(); }
+    public long misses() { return entries.misses(); }
+    public long evictions() { return entries.evictions(); }
+    public int size() { return entries.size(); }
+
+    // Hit rate is hit / (hit + miss) of suggestion.cache.requests
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("suggestion.cache.requests", this, SuggestionCache::hits).tag("result", "hit").register(registry);
+        FunctionCounter.builder("suggestion.cache.requests", this, SuggestionCache::misses).tag("result", "miss").register(registry);
+        FunctionCounter.builder("suggestion.cache.evictions", this, SuggestionCache::evictions).register(registry);
+        Gauge.builder("suggestion.cache.size", this, SuggestionCache::size).register(registry);
+    }
+}
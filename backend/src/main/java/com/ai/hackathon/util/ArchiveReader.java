@@ -0,0 +1,165 @@
+package com.ai.hackathon.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Streams the .java sources out of an upload: a single .java file, a .zip, or a
+// .tar / .tar.gz / .tgz archive. Entries are handed over one by one as they are read.
+// An entry over maxEntryBytes is skipped and reported to onSkipped with the reason,
+// and reading goes on with the next one. A tar header with an unreadable size is
+// reported the same way, but ends the archive: the next header cannot be found.
+public final class ArchiveReader {
+
+    private static final int TAR_BLOCK = 512;
+
+    private ArchiveReader() {}
+
+    public static void forEachJavaSource(String fileName, InputStream in, long maxEntryBytes,
+                                         BiConsumer<String, String> consumer,
+                                         BiConsumer<String, String> onSkipped) throws IOException {
+        String name = fileName == null ? "" : fileName.toLowerCase();
+        if (name.endsWith(".zip")) {
+            readZip(in, maxEntryBytes, consumer, onSkipped);
+        } else if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            readTar(new GZIPInputStream(in), maxEntryBytes, consumer, onSkipped);
+        } else if (name.endsWith(".tar")) {
+            readTar(in, maxEntryBytes, consumer, onSkipped);
+        } else if (name.endsWith(".java")) {
+            accept(fileName, readLimited(in, Long.MAX_VALUE, maxEntryBytes), maxEntryBytes, consumer, onSkipped);
+        } else {
+            throw new IOException("Unsupported upload type: " + fileName);
+        }
+    }
+
+    // The rest of an entry that was given up on is skipped by getNextEntry()
+    private static void readZip(InputStream in, long maxEntryBytes, BiConsumer<String, String> consumer,
+                                BiConsumer<String, String> onSkipped) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entry.getName().endsWith(".java")) {
+                accept(entry.getName(), readLimited(zip, Long.MAX_VALUE, maxEntryBytes), maxEntryBytes, consumer, onSkipped);
+            }
+        }
+    }
+
+    // Minimal ustar reader: regular files plus GNU long names, everything else skipped
+    private static void readTar(InputStream in, long maxEntryBytes, BiConsumer<String, String> consumer,
+                                BiConsumer<String, String> onSkipped) throws IOException {
+        byte[] header = new byte[TAR_BLOCK];
+        String longName = null;
+        while (readFully(in, header)) {
+            if (isZeroBlock(header)) break;
+
+            String name = longName != null ? longName : field(header, 0, 100);
+            longName = null;
+            String prefix = field(header, 345, 155);
+            if (!prefix.isEmpty()) name = prefix + "/" + name;
+            long size = size(header);
+            if (size < 0) {
+                onSkipped.accept(name, "Malformed tar header; the rest of the archive was not read");
+                return;
+            }
+            char type = (char) header[156];
+            long padded = (size + TAR_BLOCK - 1) / TAR_BLOCK * TAR_BLOCK;
+            boolean source = (type == '0' || type == 0) && name.endsWith(".java");
+
+            if (size > maxEntryBytes && (type == 'L' || source)) {
+                // Sizes are known up front, so an oversized entry is skipped unread; the
+                // entry after an oversized long name keeps its short header name
+                in.skipNBytes(padded);
+                if (type != 'L') onSkipped.accept(name, tooLarge(maxEntryBytes));
+            } else if (type == 'L') {
+                longName = readLimited(in, size, maxEntryBytes).replace("\0", "");
+                in.skipNBytes(padded - size);
+            } else if (source) {
+                String content = readLimited(in, size, maxEntryBytes);
+                in.skipNBytes(padded - size);
+                consumer.accept(name, content);
+            } else {
+                in.skipNBytes(padded);
+            }
+        }
+    }
+
+    // Octal, or GNU base-256 (high bit of the first byte set) for sizes octal cannot
+    // hold; -1 when the field is neither
+    private static long size(byte[] header) {
+        long size;
+        if ((header[124] & 0x80) != 0) {
+            size = header[124] & 0x7F;
+            for (int i = 125; i < 136; i++) {
+                if (size >>> 55 != 0) return -1;
+                size = size << 8 | (header[i] & 0xFF);
+            }
+        } else {
+            String field = field(header, 124, 12).trim();
+            if (field.isEmpty()) return 0;
+            try {
+                size = Long.parseLong(field, 8);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        // leaves room to round up to whole blocks
+        return size >= 0 && size <= Long.MAX_VALUE - TAR_BLOCK ? size : -1;
+    }
+
+    private static void accept(String name, String content, long maxEntryBytes, BiConsumer<String, String> consumer,
+                               BiConsumer<String, String> onSkipped) {
+        if (content != null) {
+            consumer.accept(name, content);
+        } else {
+            onSkipped.accept(name, tooLarge(maxEntryBytes));
+        }
+    }
+
+    private static String tooLarge(long maxEntryBytes) {
+        return "Entry too large (over " + maxEntryBytes + " bytes); skipped";
+    }
+
+    // Reads at most size bytes; null once the content passes maxEntryBytes, leaving
+    // the rest of the entry unread
+    private static String readLimited(InputStream in, long size, long maxEntryBytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size == Long.MAX_VALUE ? 8192 : (int) size);
+        byte[] buf = new byte[8192];
+        long remaining = size;
+        while (remaining > 0) {
+            int n = in.read(buf, 0, (int) Math.min(buf.length, remaining));
+            if (n < 0) break;
+            out.write(buf, 0, n);
+            remaining -= n;
+            if (out.size() > maxEntryBytes) return null;
+        }
+        return SourceDecoder.decode(out.toByteArray());
+    }
+
+    private static boolean readFully(InputStream in, byte[] block) throws IOException {
+        int off = 0;
+        while (off < block.length) {
+            int n = in.read(block, off, block.length - off);
+            if (n < 0) return false;
+            off += n;
+        }
+        return true;
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) return false;
+        }
+        return true;
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) end++;
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+}
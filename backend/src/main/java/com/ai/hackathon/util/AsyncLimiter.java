@@ -0,0 +1,63 @@
+package com.ai.hackathon.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Caps how many asynchronous tasks are in flight at once. Excess tasks are queued
+// and started as running ones complete, so callers are never blocked.
+public final class AsyncLimiter {
+
+    private final int maxConcurrent;
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private int running;
+
+    public AsyncLimiter(int maxConcurrent) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be >= 1");
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> f;
+            try {
+                f = task.get();
+            } catch (Throwable t) {
+                f = CompletableFuture.failedFuture(t);
+            }
+            f.whenComplete((v, e) -> {
+                release();
+                if (e != null) result.completeExceptionally(e);
+                else result.complete(v);
+            });
+        };
+
+        boolean runNow;
+        synchronized (this) {
+            runNow = running < maxConcurrent;
+            if (runNow) running++;
+            else waiting.add(start);
+        }
+        if (runNow) start.run();
+        return result;
+    }
+
+    public synchronized int running() {
+        return running;
+    }
+
+    public synchronized int queued() {
+        return waiting.size();
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) running--;
+        }
+        if (next != null) next.run();
+    }
+}
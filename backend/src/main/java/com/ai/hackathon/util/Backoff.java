@@ -0,0 +1,24 @@
+package com.ai.hackathon.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Exponential backoff with full jitter: attempt n waits a random time in
+// [0, min(max, base * 2^(n-1))], which spreads retries of many callers apart.
+public final class Backoff {
+
+    private final long baseNanos;
+    private final long maxNanos;
+
+    public Backoff(Duration base, Duration max) {
+        this.baseNanos = base.toNanos();
+        this.maxNanos = max.toNanos();
+    }
+
+    // attempt is 1 for the first retry
+    public long delayNanos(int attempt) {
+        long ceiling = baseNanos << Math.min(attempt - 1, 20);
+        if (ceiling <= 0 || ceiling > maxNanos) ceiling = maxNanos;
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
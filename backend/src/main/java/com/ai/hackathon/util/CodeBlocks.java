@@ -0,0 +1,20 @@
+package com.ai.hackathon.util;
+
+public final class CodeBlocks {
+
+    private CodeBlocks() {}
+
+    // Code between the first ```java and the last ``` of a model reply, or null
+    public static String extractJava(String aiResponse) {
+        int startMarker = aiResponse.indexOf("```java");
+        int endMarker = aiResponse.lastIndexOf("```");
+
+        if (startMarker != -1 && endMarker != -1 && startMarker < endMarker) {
+            String code = aiResponse.substring(startMarker + 7, endMarker).trim();
+            if (!code.isEmpty()) {
+                return code;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ai.hackathon.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Immutable gzip-compressed UTF-8 text. Java sources typically shrink 4-6x, and the
+// compressed bytes can be sent as-is to clients that accept Content-Encoding: gzip.
+public final class CompressedText {
+
+    private final byte[] gzip;
+    private final int length;
+
+    private CompressedText(byte[] gzip, int length) {
+        this.gzip = gzip;
+        this.length = length;
+    }
+
+    // null for null text
+    public static CompressedText of(String text) {
+        if (text == null) return null;
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out, 8192)) {
+            gz.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CompressedText(out.toByteArray(), raw.length);
+    }
+
+    public String text() {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip), 8192)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The gzip stream itself; callers must not modify it
+    public byte[] gzipBytes() {
+        return gzip;
+    }
+
+    // Size of the uncompressed UTF-8 text in bytes
+    public int length() {
+        return length;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ai.hackathon.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class Digests {
+
+    private Digests() {}
+
+    // SHA-256 over the parts, each preceded by its length in bytes so ("ab","c") and
+    // ("a","bc") differ, whatever the parts contain
+    public static String sha256Hex(String... parts) {
+        MessageDigest md = sha256();
+        for (String part : parts) {
+            byte[] bytes = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+            md.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            md.update(bytes);
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
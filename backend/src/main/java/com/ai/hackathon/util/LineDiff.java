@@ -0,0 +1,166 @@
+package com.ai.hackathon.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Line-level diff (Myers' O(ND) algorithm after trimming the common prefix/suffix).
+// Very different inputs fall back to one hunk covering the untrimmed middle.
+public final class LineDiff {
+
+    private static final int MAX_EDIT_DISTANCE = 1000;
+
+    // A changed region: lines [oldStart, oldStart + oldCount) were replaced by
+    // lines [newStart, newStart + newCount). Line numbers are 0-based.
+    public static final class Hunk {
+        public final int oldStart;
+        public final int oldCount;
+        public final int newStart;
+        public final int newCount;
+
+        Hunk(int oldStart, int oldCount, int newStart, int newCount) {
+            this.oldStart = oldStart;
+            this.oldCount = oldCount;
+            this.newStart = newStart;
+            this.newCount = newCount;
+        }
+    }
+
+    private final List<Hunk> hunks;
+
+    private LineDiff(List<Hunk> hunks) {
+        this.hunks = hunks;
+    }
+
+    public static String[] lines(String text) {
+        return text.split("\\R", -1);
+    }
+
+    public static LineDiff of(String oldText, String newText) {
+        return of(lines(oldText), lines(newText));
+    }
+
+    public static LineDiff of(String[] a, String[] b) {
+        int prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix].equals(b[prefix])) prefix++;
+        int suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+                && a[a.length - 1 - suffix].equals(b[b.length - 1 - suffix])) suffix++;
+
+        int n = a.length - prefix - suffix;
+        int m = b.length - prefix - suffix;
+        if (n == 0 && m == 0) return new LineDiff(List.of());
+        if (n == 0 || m == 0) return new LineDiff(List.of(new Hunk(prefix, n, prefix, m)));
+
+        List<Hunk> hunks = myers(a, b, prefix, n, m);
+        if (hunks == null) hunks = List.of(new Hunk(prefix, n, prefix, m));
+        return new LineDiff(hunks);
+    }
+
+    public List<Hunk> hunks() {
+        return hunks;
+    }
+
+    public boolean isEmpty() {
+        return hunks.isEmpty();
+    }
+
+    // New 0-based line of an unchanged old line, or -1 if the old line was changed
+    public int mapOldLine(int oldLine) {
+        int delta = 0;
+        for (Hunk h : hunks) {
+            if (oldLine < h.oldStart) break;
+            if (oldLine < h.oldStart + h.oldCount) return -1;
+            delta += h.newCount - h.oldCount;
+        }
+        return oldLine + delta;
+    }
+
+    // Returns null when the edit distance exceeds MAX_EDIT_DISTANCE
+    private static List<Hunk> myers(String[] a, String[] b, int off, int n, int m) {
+        int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        int[] v = new int[2 * max + 2];
+        List<int[]> trace = new ArrayList<>();
+        int found = -1;
+        for (int d = 0; d <= max && found < 0; d++) {
+            trace.add(Arrays.copyOf(v, v.length));
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[idx(k - 1, max)] < v[idx(k + 1, max)])) {
+                    x = v[idx(k + 1, max)];
+                } else {
+                    x = v[idx(k - 1, max)] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[off + x].equals(b[off + y])) {
+                    x++;
+                    y++;
+                }
+                v[idx(k, max)] = x;
+                if (x >= n && y >= m) {
+                    found = d;
+                    break;
+                }
+            }
+        }
+        if (found < 0) return null;
+
+        // Walk the trace backwards, collecting (oldLine, newLine) edit points
+        List<int[]> edits = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = found; d > 0; d--) {
+            int[] vd = trace.get(d);
+            int k = x - y;
+            int prevK = (k == -d || (k != d && vd[idx(k - 1, max)] < vd[idx(k + 1, max)])) ? k + 1 : k - 1;
+            int prevX = vd[idx(prevK, max)];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+            }
+            // prevK == k + 1 means an insertion of b[prevY], otherwise a deletion of a[prevX]
+            edits.add(prevK == k + 1 ? new int[]{-1, prevY} : new int[]{prevX, -1});
+            x = prevX;
+            y = prevY;
+        }
+        Collections.reverse(edits);
+        return toHunks(edits, off, n, m, a, b);
+    }
+
+    // Groups single-line edits into hunks by replaying them along both sequences
+    private static List<Hunk> toHunks(List<int[]> edits, int off, int n, int m, String[] a, String[] b) {
+        List<Hunk> hunks = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        int i = 0;
+        while (i < edits.size()) {
+            int[] e = edits.get(i);
+            int targetX = e[0] >= 0 ? e[0] : x + (e[1] - y);
+            // skip the unchanged run up to this edit
+            int skip = targetX - x;
+            x += skip;
+            y += skip;
+            int startX = x;
+            int startY = y;
+            while (i < edits.size()) {
+                int[] next = edits.get(i);
+                if (next[0] >= 0 && next[0] == x) {
+                    x++;
+                } else if (next[1] >= 0 && next[1] == y) {
+                    y++;
+                } else {
+                    break;
+                }
+                i++;
+            }
+            hunks.add(new Hunk(off + startX, x - startX, off + startY, y - startY));
+        }
+        return hunks;
+    }
+
+    private static int idx(int k, int max) {
+        return k + max + 1;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ai.hackathon.util;
+
+// Open-addressing long -> int map (linear probing, no boxing). Keys are never removed;
+// a key whose count drops back to 0 simply keeps its slot. Not thread-safe.
+public final class LongIntMap {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    // Key 0 is the empty-slot marker, so its value lives outside the table
+    private boolean hasZero;
+    private int zeroValue;
+
+    public LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public int get(long key) {
+        if (key == EMPTY) return hasZero ? zeroValue : 0;
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+            if (keys[i] == EMPTY) return 0;
+        }
+    }
+
+    // Adds delta to the key's value (0 when absent) and returns the new value
+    public int add(long key, int delta) {
+        if (key == EMPTY) {
+            hasZero = true;
+            return zeroValue += delta;
+        }
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i] += delta;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        if (++size * 2 > keys.length) grow();
+        return delta;
+    }
+
+    // Sets the key's value and returns the previous one (0 when absent)
+    public int put(long key, int value) {
+        int previous = get(key);
+        add(key, value - previous);
+        return previous;
+    }
+
+    // Number of keys ever added
+    public int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
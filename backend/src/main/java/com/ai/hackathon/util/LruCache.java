@@ -0,0 +1,81 @@
+package com.ai.hackathon.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Small thread-safe LRU map bounded by entry count, with an optional time-to-live
+// and hit/miss/eviction counters.
+public class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> map;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LruCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl == null || ttl.isZero() || ttl.isNegative() ? 0 : ttl.toNanos();
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        synchronized (map) {
+            Entry<V> e = map.get(key);
+            if (e != null && isExpired(e)) {
+                map.remove(key);
+                evictions.increment();
+                e = null;
+            }
+            if (e == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return e.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (map) {
+            map.put(key, new Entry<>(value, System.nanoTime()));
+        }
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long evictions() { return evictions.sum(); }
+
+    private boolean isExpired(Entry<V> e) {
+        return ttlNanos > 0 && System.nanoTime() - e.createdNanos > ttlNanos;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long createdNanos;
+
+        Entry(V value, long createdNanos) {
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
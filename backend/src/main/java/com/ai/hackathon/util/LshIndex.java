@@ -0,0 +1,93 @@
+package com.ai.hackathon.util;
+
+import java.util.Arrays;
+
+// Locality-sensitive hashing over MinHash signatures: each signature is cut into BANDS
+// bands of ROWS values, and two signatures become candidates when any band matches.
+// With 16 x 4 a pair at Jaccard 0.8 is found with probability > 0.999 while dissimilar
+// pairs rarely share a bucket, so a lookup touches a few buckets instead of every
+// entry. Buckets are chains through int arrays keyed by a LongIntMap; removed entries
+// are skipped and dropped when the table is rebuilt. Not thread-safe.
+public final class LshIndex {
+
+    public static final int BANDS = 16;
+    public static final int ROWS = MinHash.SIZE / BANDS;
+
+    private LongIntMap heads = new LongIntMap(1024); // band key -> slot + 1 of the newest entry
+    private int[] next = new int[BANDS * 64];        // slot -> slot + 1 of the next entry, per band
+    private int[][] signatures = new int[64][];
+    private boolean[] removed = new boolean[64];
+    private int count;
+    private int removedCount;
+
+    // Returns the entry id
+    public int add(int[] signature) {
+        if (count == signatures.length) {
+            signatures = Arrays.copyOf(signatures, count * 2);
+            removed = Arrays.copyOf(removed, count * 2);
+            next = Arrays.copyOf(next, count * 2 * BANDS);
+        }
+        int id = count++;
+        signatures[id] = signature;
+        link(id);
+        return id;
+    }
+
+    public void remove(int id) {
+        if (removed[id]) return;
+        removed[id] = true;
+        signatures[id] = null;
+        if (++removedCount > 1024 && removedCount * 2 > count) rebuildChains();
+    }
+
+    public int[] signature(int id) {
+        return signatures[id];
+    }
+
+    // Live entries sharing at least one band with the signature, each at most once, and
+    // no more than limit of them
+    public int[] candidates(int[] signature, int limit) {
+        int[] found = new int[16];
+        int n = 0;
+        for (int band = 0; band < BANDS && n < limit; band++) {
+            for (int slot = heads.get(bandKey(signature, band)) - 1; slot >= 0 && n < limit; slot = next[slot] - 1) {
+                int id = slot / BANDS;
+                if (removed[id]) continue;
+                if (n == found.length) found = Arrays.copyOf(found, n * 2);
+                found[n++] = id;
+            }
+        }
+        int[] ids = Arrays.copyOf(found, n);
+        Arrays.sort(ids);
+        int unique = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) ids[unique++] = ids[i];
+        }
+        return Arrays.copyOf(ids, unique);
+    }
+
+    private void link(int id) {
+        for (int band = 0; band < BANDS; band++) {
+            int slot = id * BANDS + band;
+            next[slot] = heads.put(bandKey(signatures[id], band), slot + 1);
+        }
+    }
+
+    // Ids stay stable; only the chains lose their removed entries
+    private void rebuildChains() {
+        heads = new LongIntMap(count);
+        Arrays.fill(next, 0);
+        for (int id = 0; id < count; id++) {
+            if (!removed[id]) link(id);
+        }
+        removedCount = 0;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long h = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            h = h * 0x100000001B3L + signature[i];
+        }
+        return MinHash.mix(h);
+    }
+}
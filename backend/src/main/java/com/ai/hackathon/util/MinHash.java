@@ -0,0 +1,57 @@
+package com.ai.hackathon.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// MinHash signatures of shingle sets: the fraction of equal positions in two signatures
+// estimates the Jaccard similarity of the sets. Each of the SIZE hash functions is
+// a * h + b over one 64-bit mix of the shingle, so a signature costs one mix and SIZE
+// multiply-adds per shingle.
+public final class MinHash {
+
+    public static final int SIZE = 64;
+
+    private static final long[] A = new long[SIZE];
+    private static final long[] B = new long[SIZE];
+
+    static {
+        // Fixed seed: signatures are stored in index snapshots
+        SplittableRandom random = new SplittableRandom(0x5EED_1DEAL);
+        for (int i = 0; i < SIZE; i++) {
+            A[i] = random.nextLong() | 1;
+            B[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {}
+
+    public static int[] signature(long[] shingles) {
+        long[] min = new long[SIZE];
+        Arrays.fill(min, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            long h = mix(shingle);
+            for (int i = 0; i < SIZE; i++) {
+                // compare as unsigned so the top bit is not special
+                long v = (A[i] * h + B[i]) ^ Long.MIN_VALUE;
+                if (v < min[i]) min[i] = v;
+            }
+        }
+        int[] sig = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) sig[i] = (int) (min[i] >>> 32);
+        return sig;
+    }
+
+    public static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / SIZE;
+    }
+
+    static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
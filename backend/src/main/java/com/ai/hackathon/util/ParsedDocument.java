@@ -0,0 +1,62 @@
+package com.ai.hackathon.util;
+
+import com.ai.hackathon.rules.LineIndex;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+
+// A source text together with its parsed CompilationUnit, so a request parses its
+// input once and hands the same tree to detection, refactoring and rescoring.
+// Stages that mutate must work on copyOfUnit(), never on unit().
+public final class ParsedDocument {
+
+    // Records, switch expressions and text blocks need the Java 17 level; the parser's
+    // default stops at Java 11
+    private static final ParserConfiguration PARSER_CONFIG = new ParserConfiguration()
+            .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17);
+
+    private final String source;
+    private final CompilationUnit unit;
+    private LineIndex lines;
+
+    private ParsedDocument(String source, CompilationUnit unit) {
+        this.source = source;
+        this.unit = unit;
+    }
+
+    public static ParsedDocument parse(String source) {
+        ParseResult<CompilationUnit> pr = new JavaParser(PARSER_CONFIG).parse(source);
+        CompilationUnit cu = pr.isSuccessful() ? pr.getResult().orElse(null) : null;
+        return new ParsedDocument(source, cu);
+    }
+
+    // Wraps a tree that was modified in memory together with its printed form. Node
+    // positions still refer to the tree's original text, so line numbers taken from
+    // such a document are only approximate; its issues are fine for scoring.
+    public static ParsedDocument of(String source, CompilationUnit unit) {
+        return new ParsedDocument(source, unit);
+    }
+
+    public boolean isParsed() {
+        return unit != null;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public CompilationUnit unit() {
+        if (unit == null) throw new IllegalStateException("Source did not parse");
+        return unit;
+    }
+
+    public CompilationUnit copyOfUnit() {
+        return unit().clone();
+    }
+
+    public LineIndex lines() {
+        if (lines == null) lines = LineIndex.of(source);
+        return lines;
+    }
+}
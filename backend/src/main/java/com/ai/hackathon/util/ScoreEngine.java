@@ -1,20 +1,46 @@
 package com.ai.hackathon.util;
 
 import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.model.RuleId;
+
 import java.util.List;
 
 public class ScoreEngine {
 
     // Calculates score based on issues found
     public static int scoreFromIssues(List<Issue> issues) {
+        return scoreFromIssues(issues, ScoringProfile.DEFAULT);
+    }
+
+    public static int scoreFromIssues(List<Issue> issues, ScoringProfile profile) {
         if (meetsAllStandards(issues)) {
             return 100; // Perfect score if no issues
         }
         int base = 100;
-        int penalty = JavaHeuristics.computePenaltyFromIssues(issues);
+        int penalty = penalty(issues, profile);
         return Math.max(0, base - penalty); // Deduct penalty for issues
     }
 
+    // One pass counting issues per rule, then one multiply per rule. Custom rules are
+    // not in the profile, so their issues bring their own weight.
+    public static int penalty(List<Issue> issues, ScoringProfile profile) {
+        int[] counts = new int[RuleId.values().length];
+        long penalty = 0;
+        for (Issue iss : issues) {
+            RuleId rule = iss.getRuleId();
+            if (rule == RuleId.CUSTOM) {
+                penalty += iss.getWeight();
+            } else {
+                counts[rule.ordinal()]++;
+            }
+        }
+        int[] weights = profile.weights();
+        for (int i = 0; i < counts.length; i++) {
+            penalty += (long) counts[i] * weights[i];
+        }
+        return (int) Math.min(penalty, profile.maxPenalty());
+    }
+
     // Checks if all standards are met (no issues)
     private static boolean meetsAllStandards(List<Issue> issues) {
         return issues == null || issues.isEmpty();
@@ -0,0 +1,47 @@
+package com.ai.hackathon.util;
+
+import com.ai.hackathon.model.RuleId;
+
+import java.util.Arrays;
+import java.util.Map;
+
+// Penalty per issue of each built-in rule plus the cap on the total penalty.
+// Immutable; weights are kept in an array indexed by RuleId ordinal.
+public final class ScoringProfile {
+
+    public static final ScoringProfile DEFAULT = new ScoringProfile("default", defaultWeights(), 100);
+
+    private final String name;
+    private final int[] weights;
+    private final int maxPenalty;
+
+    private ScoringProfile(String name, int[] weights, int maxPenalty) {
+        this.name = name;
+        this.weights = weights;
+        this.maxPenalty = maxPenalty;
+    }
+
+    // Default weights overridden by the given ones
+    public static ScoringProfile of(String name, Map<RuleId, Integer> weights, int maxPenalty) {
+        int[] w = defaultWeights();
+        weights.forEach((rule, weight) -> w[rule.ordinal()] = weight);
+        return new ScoringProfile(name, w, maxPenalty);
+    }
+
+    // A copy of this profile with some weights and the cap replaced
+    public ScoringProfile derive(String name, Map<RuleId, Integer> weights, int maxPenalty) {
+        int[] w = this.weights.clone();
+        weights.forEach((rule, weight) -> w[rule.ordinal()] = weight);
+        return new ScoringProfile(name, w, maxPenalty);
+    }
+
+    public String name() { return name; }
+    public int weight(RuleId rule) { return weights[rule.ordinal()]; }
+    public int maxPenalty() { return maxPenalty; }
+
+    int[] weights() { return weights; }
+
+    private static int[] defaultWeights() {
+        return Arrays.stream(RuleId.values()).mapToInt(RuleId::weight).toArray();
+    }
+}
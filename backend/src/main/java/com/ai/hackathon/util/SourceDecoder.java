@@ -0,0 +1,78 @@
+package com.ai.hackathon.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+// Decodes uploaded source files. The charset parameter of the part's Content-Type wins,
+// then a byte order mark; otherwise the bytes are read as strict UTF-8 and, if they are
+// not valid UTF-8, as windows-1252 (the usual encoding of legacy sources) instead of
+// turning every non-ASCII character into U+FFFD.
+public final class SourceDecoder {
+
+    private static final Charset LEGACY = Charset.forName("windows-1252");
+
+    private SourceDecoder() {}
+
+    public static String decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes), null);
+    }
+
+    public static String decode(byte[] bytes, String contentType) {
+        return decode(ByteBuffer.wrap(bytes), contentType);
+    }
+
+    // Decodes the buffer's remaining bytes straight into the string's characters, so a
+    // memory-mapped file is never copied into a heap byte[]
+    public static String decode(ByteBuffer bytes, String contentType) {
+        Charset declared = declaredCharset(contentType);
+        if (declared != null) return declared.decode(bytes).toString();
+
+        if (startsWith(bytes, 0xEF, 0xBB, 0xBF)) return StandardCharsets.UTF_8.decode(skip(bytes, 3)).toString();
+        if (startsWith(bytes, 0xFE, 0xFF)) return StandardCharsets.UTF_16BE.decode(skip(bytes, 2)).toString();
+        if (startsWith(bytes, 0xFF, 0xFE)) return StandardCharsets.UTF_16LE.decode(skip(bytes, 2)).toString();
+
+        int start = bytes.position();
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(bytes)
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return LEGACY.decode(bytes.position(start)).toString();
+        }
+    }
+
+    // "text/x-java; charset=ISO-8859-1" -> ISO-8859-1; null when absent or unknown
+    static Charset declaredCharset(String contentType) {
+        if (contentType == null) return null;
+        for (String param : contentType.split(";")) {
+            String[] kv = param.trim().split("=", 2);
+            if (kv.length == 2 && kv[0].trim().equalsIgnoreCase("charset")) {
+                try {
+                    return Charset.forName(kv[1].trim().replace("\"", ""));
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(ByteBuffer bytes, int... prefix) {
+        if (bytes.remaining() < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes.get(bytes.position() + i) & 0xFF) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static ByteBuffer skip(ByteBuffer bytes, int n) {
+        return bytes.position(bytes.position() + n);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ai.hackathon.util;
+
+// Non-blocking token bucket. reserve() takes a permit right away (going into debt if
+// needed) and tells the caller how long to wait before using it, so waiting can be
+// scheduled instead of blocking a thread. The server's own view of the limit, from
+// rate-limit response headers, can tighten the bucket or pause it until a reset.
+public final class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    // permitsPerSecond <= 0 means no local limit; only observe/pause apply
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    // Nanoseconds the caller has to wait before sending
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        refill(now);
+        long wait = Math.max(0, pausedUntil - now);
+        if (permitsPerNano <= 0) return wait;
+        tokens -= 1;
+        if (tokens < 0) {
+            wait = Math.max(wait, (long) Math.ceil(-tokens / permitsPerNano));
+        }
+        return wait;
+    }
+
+    // The server allows only `remaining` more requests until resetNanos from now
+    public synchronized void observe(long remaining, long resetNanos) {
+        long now = System.nanoTime();
+        refill(now);
+        if (remaining <= 0) {
+            pausedUntil = Math.max(pausedUntil, now + resetNanos);
+        } else if (permitsPerNano > 0) {
+            tokens = Math.min(tokens, remaining);
+        }
+    }
+
+    // Hold every request for the given time, e.g. after a 429 with Retry-After
+    public synchronized void pause(long nanos) {
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + nanos);
+    }
+
+    private void refill(long now) {
+        if (permitsPerNano > 0) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        }
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ai.hackathon.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Formats and applies unified diffs (as produced by git diff / diff -u).
+public final class UnifiedDiff {
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+
+    private UnifiedDiff() {}
+
+    // Throws IllegalArgumentException when the patch does not apply cleanly
+    public static String apply(String base, String patch) {
+        String[] baseLines = LineDiff.lines(base);
+        String separator = base.contains("\r\n") ? "\r\n" : "\n";
+        String[] patchLines = LineDiff.lines(patch);
+
+        List<String> out = new ArrayList<>(baseLines.length);
+        int next = 0; // next unconsumed base line, 0-based
+        int i = 0;
+        boolean oldNoEol = false;
+        boolean newNoEol = false;
+        while (i < patchLines.length) {
+            Matcher h = HUNK_HEADER.matcher(patchLines[i]);
+            if (!h.matches()) {
+                i++; // file headers, index lines, trailing blank line
+                continue;
+            }
+            int oldStart = Integer.parseInt(h.group(1));
+            int oldCount = h.group(2) == null ? 1 : Integer.parseInt(h.group(2));
+            int newCount = h.group(4) == null ? 1 : Integer.parseInt(h.group(4));
+            // an empty old range starts after line oldStart instead of at it
+            int hunkStart = oldCount == 0 ? oldStart : oldStart - 1;
+            if (hunkStart < next || hunkStart > baseLines.length) {
+                throw new IllegalArgumentException("Hunk out of order or range: " + patchLines[i]);
+            }
+            while (next < hunkStart) out.add(baseLines[next++]);
+            i++;
+
+            int seenOld = 0;
+            int seenNew = 0;
+            while (i < patchLines.length && (seenOld < oldCount || seenNew < newCount)) {
+                String line = patchLines[i++];
+                char kind = line.isEmpty() ? ' ' : line.charAt(0);
+                String text = line.isEmpty() ? "" : line.substring(1);
+                if (kind == ' ' || kind == '-') {
+                    if (next >= baseLines.length || !baseLines[next].equals(text)) {
+                        throw new IllegalArgumentException("Patch does not match base at line " + (next + 1));
+                    }
+                    next++;
+                    seenOld++;
+                    if (kind == ' ') {
+                        out.add(text);
+                        seenNew++;
+                    }
+                } else if (kind == '+') {
+                    out.add(text);
+                    seenNew++;
+                } else {
+                    throw new IllegalArgumentException("Unexpected patch line: " + line);
+                }
+                // "\ No newline at end of file" after the last line of either side
+                if (i < patchLines.length && patchLines[i].startsWith("\\")) {
+                    i++;
+                    oldNoEol |= kind != '+';
+                    newNoEol |= kind != '-';
+                }
+            }
+        }
+        while (next < baseLines.length) out.add(baseLines[next++]);
+        // The base's trailing line break shows up as a final empty line
+        if (newNoEol && !oldNoEol && !out.isEmpty() && out.get(out.size() - 1).isEmpty()) {
+            out.remove(out.size() - 1);
+        } else if (oldNoEol && !newNoEol) {
+            out.add("");
+        }
+        return String.join(separator, out);
+    }
+
+    // Unified diff with the given lines of context, or "" when the texts are equal.
+    // Line breaks are normalized to \n; a missing final line break is marked the way
+    // diff -u does, so the output applies with git apply / patch as well as apply().
+    public static String format(String oldName, String newName, String oldText, String newText, int context) {
+        String[] a = LineDiff.lines(oldText);
+        String[] b = LineDiff.lines(newText);
+        boolean aEol = a[a.length - 1].isEmpty();
+        boolean bEol = b[b.length - 1].isEmpty();
+        if (aEol) a = Arrays.copyOf(a, a.length - 1);
+        if (bEol) b = Arrays.copyOf(b, b.length - 1);
+
+        // A last line without a line break only matches another such line
+        List<LineDiff.Hunk> hunks = LineDiff.of(markNoEol(a, aEol), markNoEol(b, bEol)).hunks();
+        if (hunks.isEmpty()) return "";
+
+        StringBuilder out = new StringBuilder();
+        out.append("--- a/").append(oldName).append('\n');
+        out.append("+++ b/").append(newName).append('\n');
+        int first = 0;
+        while (first < hunks.size()) {
+            // Hunks whose context would touch or overlap are printed as one
+            int last = first;
+            while (last + 1 < hunks.size()
+                    && hunks.get(last + 1).oldStart - end(hunks.get(last)) <= 2 * context) last++;
+            LineDiff.Hunk h0 = hunks.get(first);
+            LineDiff.Hunk h1 = hunks.get(last);
+            int oldFrom = Math.max(0, h0.oldStart - context);
+            int oldTo = Math.min(a.length, end(h1) + context);
+            int newFrom = h0.newStart - (h0.oldStart - oldFrom);
+            int newTo = h1.newStart + h1.newCount + (oldTo - end(h1));
+            out.append("@@ -").append(range(oldFrom, oldTo - oldFrom))
+                    .append(" +").append(range(newFrom, newTo - newFrom)).append(" @@\n");
+
+            int pos = oldFrom;
+            for (int k = first; k <= last; k++) {
+                LineDiff.Hunk h = hunks.get(k);
+                for (; pos < h.oldStart; pos++) line(out, ' ', a[pos], pos == a.length - 1 && !aEol);
+                for (int j = 0; j < h.oldCount; j++) {
+                    line(out, '-', a[h.oldStart + j], h.oldStart + j == a.length - 1 && !aEol);
+                }
+                for (int j = 0; j < h.newCount; j++) {
+                    line(out, '+', b[h.newStart + j], h.newStart + j == b.length - 1 && !bEol);
+                }
+                pos = end(h);
+            }
+            for (; pos < oldTo; pos++) line(out, ' ', a[pos], pos == a.length - 1 && !aEol);
+            first = last + 1;
+        }
+        return out.toString();
+    }
+
+    private static String[] markNoEol(String[] lines, boolean eol) {
+        if (eol || lines.length == 0) return lines;
+        String[] marked = lines.clone();
+        marked[marked.length - 1] += "\0\\ No newline";
+        return marked;
+    }
+
+    private static int end(LineDiff.Hunk h) {
+        return h.oldStart + h.oldCount;
+    }
+
+    // 1-based start,count; an empty range names the line before it
+    private static String range(int start, int count) {
+        if (count == 1) return Integer.toString(start + 1);
+        return (count == 0 ? start : start + 1) + "," + count;
+    }
+
+    private static void line(StringBuilder out, char kind, String text, boolean noEol) {
+        out.append(kind).append(text).append('\n');
+        if (noEol) out.append("\\ No newline at end of file\n");
+    }
+}
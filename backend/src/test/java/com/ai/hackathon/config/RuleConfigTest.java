@@ -0,0 +1,60 @@
+package com.ai.hackathon.config;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.model.RuleId;
+import com.ai.hackathon.rules.BuiltInRules;
+import com.ai.hackathon.rules.Rule;
+import com.ai.hackathon.rules.RuleEngine;
+import com.ai.hackathon.util.ParsedDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleConfigTest {
+
+    private static MockEnvironment customRule(String id, String regex) {
+        return new MockEnvironment()
+                .withProperty("rules.custom[0].id", id)
+                .withProperty("rules.custom[0].regex", regex)
+                .withProperty("rules.custom[0].message", id + " found");
+    }
+
+    @Test
+    void customRuleInsideBuiltInMatchIsReported() {
+        List<Rule> rules = new ArrayList<>(BuiltInRules.all());
+        rules.addAll(RuleConfig.customRules(customRule("select-star", "select \\*")));
+        String source = "class A {\n"
+                + "    void f(java.sql.Statement st, String t) throws Exception {\n"
+                + "        st.executeQuery(\"select * from \" + t);\n"
+                + "    }\n"
+                + "}\n";
+        List<Issue> issues = new RuleEngine(rules).run(ParsedDocument.parse(source));
+        assertEquals(List.of(RuleId.SQL_CONCATENATION, RuleId.CUSTOM),
+                issues.stream().map(Issue::getRuleId).collect(Collectors.toList()));
+        assertEquals("select-star found", issues.get(1).getMessage());
+    }
+
+    @Test
+    void unterminatedQuoteNamesTheRule() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> RuleConfig.customRules(customRule("quoted", "\\Qfoo")));
+        assertTrue(e.getMessage().contains("'quoted'"), e.getMessage());
+    }
+
+    @Test
+    void duplicateNamedGroupNamesTheRule() {
+        MockEnvironment env = customRule("first", "(?<name>foo)")
+                .withProperty("rules.custom[1].id", "second")
+                .withProperty("rules.custom[1].regex", "(?<name>bar)")
+                .withProperty("rules.custom[1].message", "second found");
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> RuleConfig.customRules(env));
+        assertTrue(e.getMessage().contains("'second'"), e.getMessage());
+    }
+}
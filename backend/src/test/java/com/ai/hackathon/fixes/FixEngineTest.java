@@ -0,0 +1,58 @@
+package com.ai.hackathon.fixes;
+
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixEngineTest {
+
+    private static String fix(String source) {
+        FixResult result = FixEngine.defaultEngine().apply(ParsedDocument.parse(source));
+        assertTrue(result.changed());
+        return result.document().source();
+    }
+
+    @Test
+    void insertedLinesFollowCrlfFile() {
+        String source = String.join("\r\n",
+                "package a;",
+                "",
+                "import java.util.List;",
+                "",
+                "class A {",
+                "    int x;",
+                "",
+                "    void f(List<String> items) {",
+                "        System.out.println(items);",
+                "    }",
+                "}",
+                "");
+        String fixed = fix(source);
+        assertTrue(fixed.contains("Logger"), fixed);
+        assertFalse(fixed.replace("\r\n", "").contains("\n"), fixed);
+    }
+
+    @Test
+    void insertedLinesFollowLfFile() {
+        String source = "class A {\n    void f() {\n        System.out.println(1);\n    }\n}\n";
+        String fixed = fix(source);
+        assertTrue(fixed.contains("Logger"), fixed);
+        assertFalse(fixed.contains("\r"), fixed);
+    }
+
+    @Test
+    void rangesMatchTheFixedText() {
+        String source = "class A {\n    void f() {\n        System.out.println(1);\n    }\n}\n";
+        ParsedDocument fixed = FixEngine.defaultEngine().apply(ParsedDocument.parse(source)).document();
+        MethodDeclaration f = fixed.unit().findFirst(MethodDeclaration.class).orElseThrow();
+        List<String> lines = Arrays.asList(fixed.source().split("\n"));
+        assertEquals(lines.indexOf("    void f() {") + 1, f.getBegin().orElseThrow().line);
+    }
+}
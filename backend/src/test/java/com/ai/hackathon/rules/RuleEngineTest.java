@@ -0,0 +1,63 @@
+package com.ai.hackathon.rules;
+
+import com.ai.hackathon.model.Issue;
+import com.ai.hackathon.util.ParsedDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RuleEngineTest {
+
+    private static List<String> rulesFound(String source) {
+        List<Issue> issues = RuleEngine.defaultEngine().run(ParsedDocument.parse(source));
+        return issues.stream().map(i -> i.getRuleId().id()).collect(Collectors.toList());
+    }
+
+    @Test
+    void reportsTodoInsideSqlConcatenation() {
+        String source = "class A {\n"
+                + "    void f(java.sql.Statement st, String id) throws Exception {\n"
+                + "        st.executeQuery(\"select \" + id); // TODO (later)\n"
+                + "    }\n"
+                + "}\n";
+        assertEquals(List.of("todo", "sql-concatenation"), rulesFound(source));
+    }
+
+    @Test
+    void reportsTodoInsideHardcodedCredential() {
+        String source = "class A {\n"
+                + "    String password = \"FIXME\";\n"
+                + "}\n";
+        assertEquals(List.of("todo", "hardcoded-credential"), rulesFound(source));
+    }
+
+    @Test
+    void overlappingIssuesKeepTheirOwnSpans() {
+        String source = "class A { String password = \"FIXME\"; }\n";
+        List<Issue> issues = RuleEngine.defaultEngine().run(ParsedDocument.parse(source));
+        assertEquals(2, issues.size());
+        assertEquals(30, issues.get(0).getColumn());
+        assertEquals(18, issues.get(1).getColumn());
+    }
+
+    @Test
+    void ruleDoesNotReportInsideItsOwnMatch() {
+        RuleEngine engine = new RuleEngine(List.of(new TextRule("aa", "aa", 0, "aa")));
+        List<Issue> issues = engine.run(ParsedDocument.parse("class A { } // aaaa"));
+        assertEquals(2, issues.size());
+    }
+
+    @Test
+    void enginesOfOneFactoryShareCountsAndSampling() {
+        RuleEngineFactory factory = new RuleEngineFactory(1);
+        TextRule rule = new TextRule("aa", "aa", 0, "aa");
+        factory.create(List.of(rule)).run(ParsedDocument.parse("class A { } // aa"));
+        factory.create(List.of(rule)).run(ParsedDocument.parse("class A { } // aa aa"));
+        RuleStats.Counters counters = factory.stats().of("aa");
+        assertEquals(3, counters.matches());
+        assertEquals(2, counters.sampledRuns());
+    }
+}
@@ -0,0 +1,71 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.model.AnalysisResult;
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The tree the changed members are spliced into: the new version, with the base's
+// refactored form of every member that did not change
+class IncrementalAnalyzerTest {
+
+    private static final String BASE = "class A {\n"
+            + "    void keep() { System.out.println(\"keep\"); }\n"
+            + "    void edit(int x) { System.out.println(x); }\n"
+            + "    void gone() { System.out.println(\"gone\"); }\n"
+            + "}\n";
+
+    // What the model made of the base: keep() refactored with a helper
+    private static final String REFACTORED_BASE = "class A {\n"
+            + "    void keep() { say(\"keep\"); }\n"
+            + "    void edit(int x) { say(String.valueOf(x)); }\n"
+            + "    void gone() { say(\"gone\"); }\n"
+            + "    private void say(String s) { }\n"
+            + "}\n";
+
+    private static AnalysisResult base() {
+        AnalysisResult base = new AnalysisResult();
+        base.setOriginalSource(BASE);
+        base.setRefactoredSource(REFACTORED_BASE);
+        return base;
+    }
+
+    private static String carryOver(String newSource, String... changedNames) {
+        ParsedDocument doc = ParsedDocument.parse(newSource);
+        assertTrue(doc.isParsed());
+        Set<String> names = Set.of(changedNames);
+        List<CallableDeclaration<?>> changed = MemberRefactorer.members(doc.unit()).stream()
+                .filter(m -> names.contains(m.getNameAsString())).toList();
+        return IncrementalAnalyzer.carryOver(doc, changed, base()).source();
+    }
+
+    @Test
+    void changedSignatureReplacesTheOldMember() {
+        String result = carryOver(BASE.replace("void edit(int x)", "void edit(long x)"), "edit");
+        assertTrue(result.contains("edit(long x)"), result);
+        assertFalse(result.contains("edit(int x)"), result);
+        assertTrue(result.contains("say(\"keep\")"), result);
+    }
+
+    @Test
+    void deletedMemberIsNotCarriedOver() {
+        String newSource = BASE.replace("    void gone() { System.out.println(\"gone\"); }\n", "");
+        String result = carryOver(newSource, "edit");
+        assertFalse(result.contains("gone"), result);
+        assertTrue(result.contains("private void say(String s)"), result);
+    }
+
+    @Test
+    void changedMemberKeepsTheUsersEditUntilRefactored() {
+        String result = carryOver(BASE.replace("println(x)", "println(x + 1)"), "edit");
+        assertTrue(result.contains("println(x + 1)"), result);
+        assertFalse(result.contains("say(String.valueOf(x))"), result);
+        assertTrue(result.contains("say(\"keep\")"), result);
+    }
+}
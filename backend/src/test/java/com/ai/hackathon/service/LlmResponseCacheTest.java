@@ -0,0 +1,50 @@
+package com.ai.hackathon.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LlmResponseCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pruneKeepsTheNewestEntriesUpToTheCap() throws Exception {
+        LlmResponseCache cache = new LlmResponseCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 1);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(cache, "dir", dir.toString());
+        ReflectionTestUtils.setField(cache, "diskMaxEntries", 3);
+        ReflectionTestUtils.setField(cache, "pruneInterval", Duration.ofHours(1));
+        cache.init();
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 5; i++) {
+                cache.put("k" + i, "v" + i);
+                Files.setLastModifiedTime(dir.resolve("k" + i), FileTime.fromMillis(now - (5 - i) * 60_000L));
+            }
+            Files.setLastModifiedTime(dir.resolve("k0"), FileTime.fromMillis(now - Duration.ofHours(2).toMillis()));
+
+            cache.prune();
+
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(3, files.count());
+            }
+            assertEquals(2, cache.diskEvictions());
+            assertNull(cache.get("k1"));
+            assertEquals("v2", cache.get("k2"));
+        } finally {
+            cache.shutdown();
+        }
+    }
+}
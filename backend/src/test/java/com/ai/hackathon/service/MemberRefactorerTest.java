@@ -0,0 +1,75 @@
+package com.ai.hackathon.service;
+
+import com.ai.hackathon.util.ParsedDocument;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemberRefactorerTest {
+
+    private static final String SOURCE = "class A {\n"
+            + "    void f() { System.out.println(1); }\n"
+            + "    void g(int x) { System.out.println(x); }\n"
+            + "}\n"
+            + "class B {\n"
+            + "    void f() { System.out.println(2); }\n"
+            + "}\n";
+
+    private static CompilationUnit unit(String source) {
+        ParsedDocument doc = ParsedDocument.parse(source);
+        assertTrue(doc.isParsed());
+        return doc.unit();
+    }
+
+    private static List<BodyDeclaration<?>> answer(String members) {
+        return unit("class Answer {\n" + members + "\n}").getType(0).getMembers();
+    }
+
+    private static List<CallableDeclaration<?>> asked(CompilationUnit cu, String type, String name) {
+        return MemberRefactorer.members(cu).stream()
+                .filter(m -> m.getNameAsString().equals(name)
+                        && m.findAncestor(TypeDeclaration.class).get().getNameAsString().equals(type))
+                .toList();
+    }
+
+    @Test
+    void replacesTheMemberWithTheSameSignatureInItsType() {
+        CompilationUnit cu = unit(SOURCE);
+        assertTrue(MemberRefactorer.splice(cu, asked(cu, "B", "f"), answer("void f() { log(2); }")));
+        assertEquals("log(2);", cu.getType(1).getMethods().get(0).getBody().get().getStatement(0).toString());
+        assertEquals(1, cu.getType(1).getMethods().size());
+        assertTrue(cu.getType(0).getMethods().get(0).toString().contains("println(1)"));
+    }
+
+    @Test
+    void addsHelpersTheModelIntroduced() {
+        CompilationUnit cu = unit(SOURCE);
+        assertTrue(MemberRefactorer.splice(cu, asked(cu, "A", "g"),
+                answer("void g(int x) { print(x); }\nprivate void print(int x) { }")));
+        assertEquals(List.of("f", "g", "print"),
+                cu.getType(0).getMethods().stream().map(m -> m.getNameAsString()).toList());
+    }
+
+    @Test
+    void renamedAnswerIsAddedBesideTheOriginal() {
+        CompilationUnit cu = unit(SOURCE);
+        assertTrue(MemberRefactorer.splice(cu, asked(cu, "A", "g"), answer("void g(long x) { }")));
+        assertEquals(3, cu.getType(0).getMethods().size());
+    }
+
+    @Test
+    void unknownTypeLeavesTheTreeUnchanged() {
+        CompilationUnit cu = unit(SOURCE);
+        String before = cu.toString();
+        assertFalse(MemberRefactorer.splice(cu, List.of(), answer("void f() { }")));
+        assertEquals(before, cu.toString());
+    }
+}
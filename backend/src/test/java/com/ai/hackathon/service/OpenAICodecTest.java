@@ -0,0 +1,139 @@
+package com.ai.hackathon.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Randomized round trips through the codec: prompts with control characters, quotes,
+// backslashes, line separators and surrogate pairs must come back unchanged, and so
+// must answers streamed in deltas whose bytes arrive in arbitrary pieces.
+class OpenAICodecTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long SEED = 20240617L;
+    private static final int ROUNDS = 500;
+
+    private static final String SPECIALS = "\"\\/\b\f\n\r\t\u0000\u0001\u001f\u007f  {}[]:,";
+
+    @Test
+    void requestCarriesThePromptUnchanged() throws Exception {
+        Random random = new Random(SEED);
+        for (int i = 0; i < ROUNDS; i++) {
+            String prompt = randomText(random);
+            JsonNode request = MAPPER.readTree(OpenAICodec.encodeChatRequest("gpt-test", prompt, 300, 0.7, i % 2 == 0));
+            assertEquals(prompt, request.path("messages").path(0).path("content").asText(), "round " + i);
+            assertEquals("gpt-test", request.path("model").asText());
+            assertEquals(300, request.path("max_tokens").asInt());
+            assertEquals(i % 2 == 0, request.path("stream").asBoolean(false));
+        }
+    }
+
+    @Test
+    void responseContentComesBackUnchanged() throws Exception {
+        Random random = new Random(SEED + 1);
+        for (int i = 0; i < ROUNDS; i++) {
+            String content = randomText(random);
+            assertEquals(content, OpenAICodec.decodeContent(MAPPER.writeValueAsBytes(response("message", content))), "round " + i);
+        }
+    }
+
+    @Test
+    void streamedDeltasSurviveArbitraryChunking() throws Exception {
+        Random random = new Random(SEED + 2);
+        for (int i = 0; i < ROUNDS; i++) {
+            String content = randomText(random);
+            StringBuilder sse = new StringBuilder("data: ").append(MAPPER.writeValueAsString(roleChunk())).append("\n\n");
+            for (String delta : splitByCodePoints(content, random)) {
+                String eol = random.nextBoolean() ? "\n" : "\r\n";
+                sse.append("data: ").append(MAPPER.writeValueAsString(response("delta", delta))).append(eol).append(eol);
+            }
+            sse.append("data: [DONE]\n\n");
+
+            StringBuilder tokens = new StringBuilder();
+            String streamed = stream(sse.toString().getBytes(StandardCharsets.UTF_8), random, tokens::append);
+            assertEquals(content, streamed, "round " + i);
+            assertEquals(content, tokens.toString(), "round " + i);
+        }
+    }
+
+    // Feeds the body through the same line subscriber as OpenAIClient, in byte chunks
+    // that may end anywhere, also inside a UTF-8 sequence or a CRLF
+    private static String stream(byte[] body, Random random, java.util.function.Consumer<String> onToken) {
+        HttpResponse.BodySubscriber<String> subscriber = HttpResponse.BodySubscribers.fromLineSubscriber(
+                new OpenAIStreamSubscriber(onToken), OpenAIStreamSubscriber::content, StandardCharsets.UTF_8, null);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {}
+
+            @Override
+            public void cancel() {}
+        });
+        for (int at = 0; at < body.length; ) {
+            int next = Math.min(body.length, at + 1 + random.nextInt(24));
+            List<ByteBuffer> buffers = new ArrayList<>();
+            for (int from = at; from < next; ) {
+                int to = Math.min(next, from + 1 + random.nextInt(8));
+                buffers.add(ByteBuffer.wrap(body, from, to - from).slice());
+                from = to;
+            }
+            subscriber.onNext(buffers);
+            at = next;
+        }
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+
+    private static ObjectNode response(String holder, String content) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("id", "chatcmpl-test");
+        ObjectNode choice = root.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.putObject(holder).put("role", "assistant").put("content", content);
+        choice.putNull("finish_reason");
+        return root;
+    }
+
+    private static ObjectNode roleChunk() {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.putArray("choices").addObject().putObject("delta").put("role", "assistant");
+        return root;
+    }
+
+    private static List<String> splitByCodePoints(String text, Random random) {
+        List<String> parts = new ArrayList<>();
+        int[] cps = text.codePoints().toArray();
+        for (int i = 0; i < cps.length; ) {
+            int n = Math.min(cps.length - i, 1 + random.nextInt(6));
+            parts.add(new String(cps, i, n));
+            i += n;
+        }
+        return parts;
+    }
+
+    private static String randomText(Random random) {
+        int length = random.nextInt(200);
+        StringBuilder sb = new StringBuilder(length * 2);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(6)) {
+                case 0 -> sb.append(SPECIALS.charAt(random.nextInt(SPECIALS.length())));
+                case 1 -> sb.append((char) random.nextInt(0x20));
+                case 2 -> sb.appendCodePoint(0x10000 + random.nextInt(0x10FFFF - 0x10000));
+                case 3 -> sb.append((char) (0x80 + random.nextInt(0xD800 - 0x80)));
+                case 4 -> sb.append("data: ");
+                default -> sb.append((char) (0x20 + random.nextInt(0x5F)));
+            }
+        }
+        return sb.toString();
+    }
+}
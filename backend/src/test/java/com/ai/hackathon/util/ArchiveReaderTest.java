@@ -0,0 +1,109 @@
+package com.ai.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ArchiveReaderTest {
+
+    private static final int LIMIT = 64;
+    private static final String SMALL = "class A {}";
+    private static final String LARGE = "class B { " + "int x; ".repeat(20) + "}";
+
+    @Test
+    void zipSkipsOversizedEntryAndKeepsReading() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String[] e : new String[][]{{"A.java", SMALL}, {"B.java", LARGE}, {"C.java", SMALL}}) {
+                zip.putNextEntry(new ZipEntry(e[0]));
+                zip.write(e[1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        assertRead("upload.zip", bytes.toByteArray());
+    }
+
+    @Test
+    void tarSkipsOversizedEntryAndKeepsReading() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tarEntry(tar, "A.java", SMALL);
+        tarEntry(tar, "B.java", LARGE);
+        tarEntry(tar, "C.java", SMALL);
+        tar.write(new byte[1024]);
+        assertRead("upload.tar", tar.toByteArray());
+    }
+
+    @Test
+    void tarReadsBase256Size() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        byte[] size = new byte[12];
+        size[0] = (byte) 0x80;
+        size[11] = (byte) SMALL.length();
+        tarEntry(tar, "A.java", SMALL, size);
+        tar.write(new byte[1024]);
+        List<String> read = new ArrayList<>();
+        ArchiveReader.forEachJavaSource("upload.tar", new ByteArrayInputStream(tar.toByteArray()), LIMIT,
+                (name, source) -> read.add(name + ":" + source), (name, reason) -> read.add("skipped " + name));
+        assertEquals(List.of("A.java:" + SMALL), read);
+    }
+
+    @Test
+    void tarWithMalformedSizeIsReportedNotThrown() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tarEntry(tar, "A.java", SMALL);
+        tarEntry(tar, "B.java", SMALL, "9x".getBytes(StandardCharsets.US_ASCII));
+        tarEntry(tar, "C.java", SMALL);
+        tar.write(new byte[1024]);
+        List<String> read = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        ArchiveReader.forEachJavaSource("upload.tar", new ByteArrayInputStream(tar.toByteArray()), LIMIT,
+                (name, source) -> read.add(name), (name, reason) -> skipped.add(name));
+        assertEquals(List.of("A.java"), read);
+        assertEquals(List.of("B.java"), skipped);
+    }
+
+    @Test
+    void singleOversizedFileIsReportedNotThrown() throws Exception {
+        List<String> read = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        ArchiveReader.forEachJavaSource("B.java", new ByteArrayInputStream(LARGE.getBytes(StandardCharsets.UTF_8)), LIMIT,
+                (name, source) -> read.add(name), (name, reason) -> skipped.add(name));
+        assertEquals(List.of(), read);
+        assertEquals(List.of("B.java"), skipped);
+    }
+
+    private static void assertRead(String fileName, byte[] upload) throws Exception {
+        List<String> read = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        ArchiveReader.forEachJavaSource(fileName, new ByteArrayInputStream(upload), LIMIT,
+                (name, source) -> read.add(name + ":" + source), (name, reason) -> skipped.add(name));
+        assertEquals(List.of("A.java:" + SMALL, "C.java:" + SMALL), read);
+        assertEquals(List.of("B.java"), skipped);
+    }
+
+    private static void tarEntry(ByteArrayOutputStream tar, String name, String content) {
+        byte[] size = String.format("%011o", content.getBytes(StandardCharsets.UTF_8).length)
+                .getBytes(StandardCharsets.US_ASCII);
+        tarEntry(tar, name, content, size);
+    }
+
+    private static void tarEntry(ByteArrayOutputStream tar, String name, String content, byte[] size) {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        byte[] header = new byte[512];
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+        System.arraycopy(size, 0, header, 124, size.length);
+        header[156] = '0';
+        tar.writeBytes(header);
+        tar.writeBytes(data);
+        tar.writeBytes(new byte[(512 - data.length % 512) % 512]);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ai.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class DigestsTest {
+
+    @Test
+    void partBoundariesCount() {
+        assertNotEquals(Digests.sha256Hex("ab", "c"), Digests.sha256Hex("a", "bc"));
+        assertNotEquals(Digests.sha256Hex("a\0", "b"), Digests.sha256Hex("a", "\0b"));
+        assertEquals(Digests.sha256Hex("a", "b"), Digests.sha256Hex("a", "b"));
+    }
+}
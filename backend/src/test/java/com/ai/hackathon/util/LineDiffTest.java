@@ -0,0 +1,48 @@
+package com.ai.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineDiffTest {
+
+    private static String text(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private static void assertHunk(LineDiff.Hunk h, int oldStart, int oldCount, int newStart, int newCount) {
+        assertEquals(List.of(oldStart, oldCount, newStart, newCount), List.of(h.oldStart, h.oldCount, h.newStart, h.newCount));
+    }
+
+    @Test
+    void equalTextsHaveNoHunks() {
+        assertTrue(LineDiff.of(text("a", "b"), text("a", "b")).isEmpty());
+    }
+
+    @Test
+    void insertionDeletionAndReplacement() {
+        LineDiff diff = LineDiff.of(text("a", "b", "c", "d", "e"), text("a", "x", "c", "e", "f"));
+        List<LineDiff.Hunk> hunks = diff.hunks();
+        assertEquals(3, hunks.size());
+        assertHunk(hunks.get(0), 1, 1, 1, 1);
+        assertHunk(hunks.get(1), 3, 1, 3, 0);
+        assertHunk(hunks.get(2), 5, 0, 4, 1);
+    }
+
+    @Test
+    void mapsUnchangedOldLinesPastEdits() {
+        LineDiff diff = LineDiff.of(text("a", "b", "c", "d"), text("new", "a", "c", "d"));
+        assertEquals(1, diff.mapOldLine(0));
+        assertEquals(-1, diff.mapOldLine(1));
+        assertEquals(2, diff.mapOldLine(2));
+        assertEquals(3, diff.mapOldLine(3));
+    }
+
+    @Test
+    void lineBreaksOfAnyKindSplitLines() {
+        assertTrue(LineDiff.of("a\r\nb\r\n", "a\nb\n").isEmpty());
+    }
+}
@@ -0,0 +1,28 @@
+package com.ai.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParsedDocumentTest {
+
+    @Test
+    void parsesJava17Syntax() {
+        String source = "class A {\n"
+                + "    private record Ticket(String jobId, int priority) {}\n"
+                + "    sealed interface Shape permits Circle {}\n"
+                + "    final class Circle implements Shape {}\n"
+                + "    String describe(Object o) {\n"
+                + "        String text = \"\"\"\n"
+                + "            block\n"
+                + "            \"\"\";\n"
+                + "        if (o instanceof Ticket t) return t.jobId();\n"
+                + "        return switch (text.length()) {\n"
+                + "            case 0 -> \"empty\";\n"
+                + "            default -> text;\n"
+                + "        };\n"
+                + "    }\n"
+                + "}\n";
+        assertTrue(ParsedDocument.parse(source).isParsed());
+    }
+}
@@ -0,0 +1,43 @@
+package com.ai.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UnifiedDiffTest {
+
+    private static final String BASE = "class A {\n    void f() {\n        a();\n    }\n\n    void g() {\n        b();\n    }\n}\n";
+
+    @Test
+    void formatThenApplyGivesTheNewText() {
+        String changed = BASE.replace("a();", "a();\n        c();").replace("b();", "d();");
+        String patch = UnifiedDiff.format("A.java", "A.java", BASE, changed, 3);
+        assertEquals(changed, UnifiedDiff.apply(BASE, patch));
+    }
+
+    @Test
+    void equalTextsFormatToNothing() {
+        assertEquals("", UnifiedDiff.format("A.java", "A.java", BASE, BASE, 3));
+    }
+
+    @Test
+    void missingFinalLineBreakRoundTrips() {
+        String changed = BASE.substring(0, BASE.length() - 1);
+        assertEquals(changed, UnifiedDiff.apply(BASE, UnifiedDiff.format("A.java", "A.java", BASE, changed, 3)));
+        assertEquals(BASE, UnifiedDiff.apply(changed, UnifiedDiff.format("A.java", "A.java", changed, BASE, 3)));
+    }
+
+    @Test
+    void keepsTheBaseLineBreaks() {
+        String base = BASE.replace("\n", "\r\n");
+        String patch = "--- a/A.java\n+++ b/A.java\n@@ -3,1 +3,1 @@\n-        a();\n+        z();\n";
+        assertEquals(base.replace("a();", "z();"), UnifiedDiff.apply(base, patch));
+    }
+
+    @Test
+    void refusesPatchForAnotherBase() {
+        String patch = "--- a/A.java\n+++ b/A.java\n@@ -3,1 +3,1 @@\n-        other();\n+        z();\n";
+        assertThrows(IllegalArgumentException.class, () -> UnifiedDiff.apply(BASE, patch));
+    }
+}
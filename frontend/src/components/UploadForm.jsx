@@ -1,5 +1,4 @@
 import React, {useState} from 'react'
-import axios from 'axios'
 import { saveAs } from 'file-saver'
 
 export default function UploadForm(){
@@ -10,13 +9,46 @@ export default function UploadForm(){
 
   const onFileChange = e => setFile(e.target.files[0])
 
+  // Reads the server-sent events of /api/analyze/stream and updates the view as they arrive
+  const handleEvent = (name, data) => {
+    if (name === 'analysis' || name === 'result') {
+      setAnalysis(prev => ({...data, streamedSuggestions: name === 'analysis' ? '' : prev?.streamedSuggestions,
+        streamedRefactor: name === 'analysis' ? '' : prev?.streamedRefactor}))
+    } else if (name === 'suggestions') {
+      setAnalysis(prev => ({...prev, streamedSuggestions: (prev?.streamedSuggestions || '') + data.token}))
+    } else if (name === 'refactor') {
+      setAnalysis(prev => ({...prev, streamedRefactor: (prev?.streamedRefactor || '') + data.token}))
+    } else if (name === 'error') {
+      alert('Analyze failed: ' + data.message)
+    }
+  }
+
   const analyze = async () => {
     if (!file) return alert('Select a .java file first')
     setLoading(true)
+    setAnalysis(null)
     const form = new FormData(); form.append('file', file)
     try{
-      const res = await axios.post('http://localhost:8080/api/analyze', form, { headers: {'Content-Type':'multipart/form-data'} })
-      setAnalysis(res.data)
+      const res = await fetch('http://localhost:8080/api/analyze/stream', { method: 'POST', body: form })
+      if (!res.ok) throw new Error('HTTP ' + res.status)
+      const reader = res.body.getReader()
+      const decoder = new TextDecoder()
+      let buffer = ''
+      for (;;) {
+        const { value, done } = await reader.read()
+        if (done) break
+        buffer += decoder.decode(value, { stream: true })
+        let sep
+        while ((sep = buffer.indexOf('\n\n')) >= 0) {
+          const block = buffer.slice(0, sep); buffer = buffer.slice(sep + 2)
+          let name = 'message', data = ''
+          block.split('\n').forEach(line => {
+            if (line.startsWith('event:')) name = line.slice(6).trim()
+            else if (line.startsWith('data:')) data += line.slice(5)
+          })
+          if (data) handleEvent(name, JSON.parse(data))
+        }
+      }
     }catch(err){ alert('Analyze failed: '+err) } finally { setLoading(false) }
   }
 
@@ -60,9 +92,9 @@ export default function UploadForm(){
       </div>
 
       <h4>AI Suggestions</h4>
-      <pre className='code'>{analysis.aiSuggestions}</pre>
+      <pre className='code'>{analysis.aiSuggestions ? analysis.aiSuggestions : analysis.streamedSuggestions}</pre>
       <h4>Refactored Source</h4>
-      <pre className='code'>{analysis.refactoredSource}</pre>
+      <pre className='code'>{analysis.refactoredSource ? analysis.refactoredSource : analysis.streamedRefactor}</pre>
 
       <div className="buttons-container">
         <button className="download-btn" onClick={downloadOriginal}>Download Original Code</button>